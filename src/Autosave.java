@@ -0,0 +1,75 @@
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The Autosave class saves Players who have changed every so often, so a crash loses at
+ *		most a few minutes of play rather than everything since they last typed save. Players
+ *		who haven't changed aren't saved at all.
+ *
+ *	Structure / Process
+ *
+ *		The game loop calls tick once every periodic tick. Rather than saving everybody at once
+ *		when the autosave comes due, which would send a storm of saves to the PersistenceQueue,
+ *		each tick visits a small share of the Players online, so every Player is visited once
+ *		in each Config.getAutosaveSeconds(). A visited Player is only saved if they're dirty.
+ *
+ *		How many Players a tick visits is kept exact with a running credit: each tick earns one
+ *		visit per Player online, and every ticks-per-autosave visits earned are spent on one
+ *		Player. So with 10 Players online and 3000 ticks between autosaves, one Player is
+ *		visited every 300 ticks, and with 6000 Players online, two are visited every tick.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Player#isDirty()
+ * @see PersistenceQueue
+ */
+public final class Autosave {
+
+	/** The place in the playerList of the next Player to visit. */
+	private static int nextPlayer	= 0;
+	/** The visits earned but not yet spent, in Players times ticks. */
+	private static long credit		= 0;
+
+	/** The private constructor ensures this class cannot be instantiated. */
+	private Autosave() {
+
+		throw new AssertionError();
+	}
+
+	/** A method to visit this tick's share of the Players online, saving any who are dirty. */
+	public static void tick() {
+
+		// The ticks in which every Player is visited once
+		long ticksPerAutosave	= (long)Config.getAutosaveSeconds() * Config.getTicksPerSecond();
+		int online				= Player.getNumberOnline();
+		long visits				= 0;
+		Player onePlayer		= null;
+
+		// Turned off, or nobody to save
+		if (ticksPerAutosave == 0 || online == 0) {
+
+			credit = 0;
+			return;
+		}
+
+		credit	+= online;
+		visits	= Math.min(credit / ticksPerAutosave, online);
+		credit	%= ticksPerAutosave;
+
+		for(; visits > 0; visits--) {
+
+			// Players come and go, so the list may have shrunk since the last tick
+			if (nextPlayer >= online) {
+
+				nextPlayer = 0;
+			}
+
+			onePlayer = Player.getOnlinePlayer(nextPlayer++);
+
+			if (onePlayer.isDirty()) {
+
+				Player.savePlayer(onePlayer);
+			}
+		}
+	}
+}
@@ -0,0 +1,127 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The ChannelConnection class is the Connection used by the selector networking mode. It
+ *		wraps a non-blocking SocketChannel which is serviced by a single SelectorConnectionManager
+ *		thread, so a connected client never costs the game a thread of its own.
+ *
+ *	Structure / Process
+ *
+ *		The selector thread reads from the channel and feeds the bytes into this Connection's
+ *		LineAssembler. The game thread pulls complete lines through readLine and queues output
+ *		through write. Queued output is written by the selector thread whenever the channel is
+ *		able to accept more bytes, so writing to a ChannelConnection never blocks the game. The
+ *		OutboundQueue holding it is bounded, so a client which stops reading loses output.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Connection
+ * @see SelectorConnectionManager
+ */
+public class ChannelConnection extends QueuedConnection {
+
+	/** The non-blocking channel to the client. */
+	private SocketChannel channel;
+	/** The selector thread which services the channel. */
+	private SelectorConnectionManager manager;
+
+	/**
+	 * A parameterized constructor for a freshly accepted channel.
+	 *
+	 * @param channel The accepted, non-blocking SocketChannel.
+	 * @param manager The SelectorConnectionManager servicing the channel.
+	 */
+	public ChannelConnection(SocketChannel channel, SelectorConnectionManager manager) {
+
+		this.channel	= channel;
+		this.manager	= manager;
+	}
+
+	/**
+	 * A method to get the channel this Connection wraps.
+	 *
+	 * @return Returns the SocketChannel to the client.
+	 */
+	public SocketChannel getChannel() {
+
+		return channel;
+	}
+
+	/**
+	 * A method to get the LineAssembler which the selector thread feeds.
+	 *
+	 * @return Returns this Connection's LineAssembler.
+	 */
+	public LineAssembler getAssembler() {
+
+		return assembler;
+	}
+
+	/** A method to let the selector thread know there's output, or a close, to see to. */
+	protected void outputQueued() {
+
+		manager.requestWrite(this);
+	}
+
+	/**
+	 * A method, called by the selector thread, to write as much queued output as the
+	 * channel will currently accept.
+	 *
+	 * @return Returns true if every queued buffer was written and false if the channel
+	 *			filled up before the queue was emptied.
+	 * @throws IOException Thrown if the channel fails while writing.
+	 */
+	public boolean writePending() throws IOException {
+
+		ByteBuffer oneBuffer = null;
+
+		// Write until we run out of output or the channel runs out of room
+		while((oneBuffer = outbound.peek()) != null) {
+
+			channel.write(oneBuffer);
+
+			// The channel is full, we'll be told when it has room again
+			if (oneBuffer.hasRemaining()) {
+
+				return false;
+			}
+
+			outbound.remove();
+		}
+
+		return true;
+	}
+
+	/** A method, called by the selector thread, to close the channel. */
+	public void markClosed() {
+
+		closed = true;
+
+		// Try to close the channel
+		try {
+
+			channel.close();
+		}
+
+		// Catch any Exceptions
+		catch (IOException e) {
+
+			System.out.println("IOException closing channel: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * A method to describe this Connection.
+	 *
+	 * @return Returns a String with the remote address of the channel.
+	 */
+	public String toString() {
+
+		return "Class: ChannelConnection\nAddress: " + channel.socket().getRemoteSocketAddress();
+	}
+}
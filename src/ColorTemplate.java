@@ -0,0 +1,154 @@
+import java.util.ArrayList;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The ColorTemplate class is a piece of text the game sends over and over, such as the MOTD,
+ *		the credits, the equipment art or the prompt, colorized and encoded just once. Sending a
+ *		template copies its bytes straight into a Player's OutputBuffer instead of colorizing the
+ *		same text again every time.
+ *
+ *	Structure / Process
+ *
+ *		A template is written like any other message, with color codes such as #C, plus numbered
+ *		placeholders such as {0} for the parts which change each time it's sent. The text between
+ *		placeholders is colorized and encoded by the constructor. When the template is sent, each
+ *		placeholder is filled by the matching argument, which is colorized as it's buffered.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see OutputBuffer
+ * @see TextManipulator#addColor(String)
+ */
+public class ColorTemplate {
+
+	/** The colorized, encoded text before, between and after the placeholders. */
+	private byte[][] literals;
+	/** The argument number of each placeholder, in the order they appear. */
+	private int[] placeholders;
+
+	/**
+	 * A parameterized constructor which compiles the given template.
+	 *
+	 * @param template The text of the template, with color codes and numbered placeholders.
+	 */
+	public ColorTemplate(String template) {
+
+		ArrayList<byte[]> literalList	= new ArrayList<byte[]>();
+		ArrayList<Integer> numberList	= new ArrayList<Integer>();
+		// The start of the literal text being read
+		int literalStart				= 0;
+		// The end of a placeholder we may have found
+		int close						= 0;
+
+		for(int i = 0; i < template.length(); i++) {
+
+			// Only a { followed by digits and a } is a placeholder; anything else is just text
+			if (template.charAt(i) == '{' && (close = placeholderEnd(template, i)) > 0) {
+
+				literalList.add(compile(template.substring(literalStart, i)));
+				numberList.add(Integer.parseInt(template.substring(i + 1, close)));
+
+				i				= close;
+				literalStart	= close + 1;
+			}
+		}
+
+		// Everything after the last placeholder
+		literalList.add(compile(template.substring(literalStart)));
+
+		literals		= literalList.toArray(new byte[literalList.size()][]);
+		placeholders	= new int[numberList.size()];
+
+		for(int i = 0; i < placeholders.length; i++) {
+
+			placeholders[i] = numberList.get(i);
+		}
+	}
+
+	/**
+	 * A method to find the closing brace of a placeholder starting at the given index.
+	 *
+	 * @param template The text of the template.
+	 * @param open The index of the opening brace.
+	 * @return Returns the index of the closing brace, or -1 if this isn't a placeholder.
+	 */
+	private static int placeholderEnd(String template, int open) {
+
+		int i = open + 1;
+
+		// Read the digits
+		while(i < template.length() && Character.isDigit(template.charAt(i))) {
+
+			i++;
+		}
+
+		// There has to be at least one digit and a closing brace
+		if (i > open + 1 && i < template.length() && template.charAt(i) == '}') {
+
+			return i;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * A method to colorize and encode a piece of literal text.
+	 *
+	 * @param text The literal text.
+	 * @return Returns the bytes to be sent for the text.
+	 */
+	private static byte[] compile(String text) {
+
+		String colored	= TextManipulator.addColor(text);
+		byte[] bytes	= new byte[colored.length()];
+
+		// Each character is sent as a single byte
+		for(int i = 0; i < bytes.length; i++) {
+
+			bytes[i] = (byte)colored.charAt(i);
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * A method to send the template to the given buffer with its placeholders filled in.
+	 *
+	 * @param output The OutputBuffer to send the template to.
+	 * @param arguments The text for each numbered placeholder; color codes are allowed.
+	 */
+	public void appendTo(OutputBuffer output, String... arguments) {
+
+		for(int i = 0; i < literals.length; i++) {
+
+			output.append(literals[i]);
+
+			if (i < placeholders.length) {
+
+				output.appendColored(arguments[placeholders[i]]);
+			}
+		}
+	}
+
+	/**
+	 * A method to get the compiled bytes of a template which has no placeholders.
+	 *
+	 * @return Returns the colorized, encoded text of the template.
+	 */
+	public byte[] getBytes() {
+
+		return literals[0];
+	}
+
+	/**
+	 * A method to put the class name.
+	 *
+	 * @return Returns a String indicating the class's name.
+	 */
+	public String toString() {
+
+		return "Class: ColorTemplate";
+	}
+}
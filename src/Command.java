@@ -0,0 +1,28 @@
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The Command interface is a single command a Player can type. Commands are registered with
+ *		a CommandTable under their full name and are run by the Interpreter once the Player's
+ *		input has been matched to them.
+ *
+ *	Structure / Process
+ *
+ *		Most commands are registered in the Interpreter as method references to its private
+ *		command methods, so adding a command is a matter of writing its method and registering it.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see CommandTable
+ * @see Interpreter
+ */
+public interface Command {
+
+	/**
+	 * A method to run the command for the given Player.
+	 *
+	 * @param player The Player who is running the command.
+	 * @param argument Everything the Player typed after the command's name, or an empty String.
+	 */
+	void execute(Player player, String argument);
+}
@@ -0,0 +1,116 @@
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The CommandTable class matches what a Player typed to a registered Command. Players may
+ *		type any leading part of a command's name, so "n" runs north and "inv" runs inventory.
+ *		Every abbreviation is worked out once, when the command is registered, so matching input
+ *		is a single lookup no matter how many commands there are.
+ *
+ *	Structure / Process
+ *
+ *		Commands are registered in order of precedence. Registering a command maps each of its
+ *		abbreviations to its full name unless an earlier command already claimed it, which means
+ *		an abbreviation always resolves to the first registered command it's an abbreviation of.
+ *		An alias, such as grab for get, claims abbreviations the same way but resolves to the
+ *		command it stands for, and isn't listed among the command names.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Command
+ * @see Interpreter
+ */
+public class CommandTable {
+
+	/** Every abbreviation mapped to the full name of the command it resolves to. */
+	private HashMap<String, String> abbreviations;
+	/** Every full command name mapped to its Command, in the order they were registered. */
+	private LinkedHashMap<String, Command> commands;
+
+	/** A default constructor for a table with no commands. */
+	public CommandTable() {
+
+		abbreviations	= new HashMap<String, String>();
+		commands		= new LinkedHashMap<String, Command>();
+	}
+
+	/**
+	 * A method to register a command under its full name. Commands registered earlier take
+	 * precedence over later commands sharing an abbreviation.
+	 *
+	 * @param name The full, lowercase name of the command.
+	 * @param command The Command which is run when the name is matched.
+	 */
+	public void register(String name, Command command) {
+
+		commands.put(name, command);
+
+		// Claim every abbreviation an earlier command hasn't
+		for(int i = 1; i <= name.length(); i++) {
+
+			abbreviations.putIfAbsent(name.substring(0, i), name);
+		}
+	}
+
+	/**
+	 * A method to register another name for a command which is already registered. The
+	 * alias, and its abbreviations, resolve to the command's full name.
+	 *
+	 * @param alias The full, lowercase alias.
+	 * @param name The full name of the command the alias stands for.
+	 */
+	public void registerAlias(String alias, String name) {
+
+		// Claim every abbreviation an earlier command hasn't
+		for(int i = 1; i <= alias.length(); i++) {
+
+			abbreviations.putIfAbsent(alias.substring(0, i), name);
+		}
+	}
+
+	/**
+	 * A method to find the full name of the command the given input resolves to.
+	 *
+	 * @param commandName The lowercase command name, or abbreviation, the Player typed.
+	 * @return Returns the full name of the command, or null if nothing matches.
+	 */
+	public String resolve(String commandName) {
+
+		return abbreviations.get(commandName);
+	}
+
+	/**
+	 * A method to get the Command registered under a full name.
+	 *
+	 * @param name The full name of the command, as returned by resolve.
+	 * @return Returns the Command, or null if nothing is registered under the name.
+	 */
+	public Command getCommand(String name) {
+
+		return commands.get(name);
+	}
+
+	/**
+	 * A method to get the full name of every registered command, leaving out aliases.
+	 *
+	 * @return Returns the names, in the order they were registered.
+	 */
+	public Set<String> getNames() {
+
+		return commands.keySet();
+	}
+
+	/**
+	 * A method to put the class name.
+	 *
+	 * @return Returns a String indicating the class's name.
+	 */
+	public String toString() {
+
+		return "Class: CommandTable";
+	}
+}
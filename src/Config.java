@@ -33,12 +33,46 @@ public final class Config {
 	/** Port to listen to for socket connections */
 	public static final int PORT		= 5002;
 
+	/** Networking mode where each accepted Socket is a blocking Socket polled by the game */
+	public static final String NETWORK_THREAD	= "thread";
+	/** Networking mode where a single Selector services every connection */
+	public static final String NETWORK_SELECTOR	= "selector";
+	/** Networking mode where each connection's input is read by its own virtual thread */
+	public static final String NETWORK_VIRTUAL	= "virtual";
+
+	/** World mode where the whole map is built from the seed at startup */
+	public static final String WORLD_EAGER	= "eager";
+	/** World mode where each part of the map is built the first time it's visited */
+	public static final String WORLD_LAZY	= "lazy";
+
 	/** Administrator Name */
 	private static String adminName 	= "";
 	/** seedFile for loading the pseudo-random generator */
 	private static String seedFile		= Seed.DEFAULT_SEED_FILE;
 	/** Message of the Day (MOTD) / Login Greeting */
 	private static String motd			= "";
+	/** The MOTD compiled for sending */
+	private static ColorTemplate motdTemplate	= null;
+	/** The networking mode chosen at startup */
+	private static String networkMode	= NETWORK_THREAD;
+	/** The number of periodic game ticks run each second */
+	private static int ticksPerSecond	= 10;
+	/** The world generation mode chosen at startup */
+	private static String worldMode		= WORLD_EAGER;
+	/** Seconds a connection may sit at a login prompt without answering */
+	private static int loginIdleSeconds		= 60;
+	/** Seconds a connection may take to finish logging in altogether */
+	private static int loginTimeoutSeconds	= 300;
+	/** Bytes of output which may wait to be sent to one client */
+	private static int outputLimit			= 65536;
+	/** Seconds a client may stay over its output limit before it's disconnected */
+	private static int slowClientSeconds	= 30;
+	/** Whether clients are offered MCCP compressed output */
+	private static boolean compression		= true;
+	/** The most player saves committed to disk together */
+	private static int saveBatch			= 32;
+	/** Seconds between autosaves of each Player who has changed; 0 turns autosave off */
+	private static int autosaveSeconds		= 300;
 
 	/**
 	 * Boolean which controls whether the game is loading with a new seed file
@@ -94,6 +128,123 @@ public final class Config {
 		return motd;
 	}
 
+	/**
+	 * Method to get the Message of the Day (MOTD), followed by a blank line, compiled
+	 * once for sending to each new connection.
+	 *
+	 * @return The compiled MOTD.
+	 */
+	public static ColorTemplate getMOTDTemplate() {
+		
+		// Compile it the first time it's needed
+		if (motdTemplate == null) {
+			
+			motdTemplate = new ColorTemplate(motd + "\n\r");
+		}
+		
+		return motdTemplate;
+	}
+
+	/**
+	 * Method to get the networking mode chosen at startup.
+	 *
+	 * @return One of NETWORK_THREAD, NETWORK_SELECTOR or NETWORK_VIRTUAL.
+	 */
+	public static String getNetworkMode() {
+		
+		return networkMode;
+	}
+
+	/**
+	 * Method to get the world generation mode chosen at startup.
+	 *
+	 * @return Either WORLD_EAGER or WORLD_LAZY.
+	 */
+	public static String getWorldMode() {
+		
+		return worldMode;
+	}
+
+	/**
+	 * Method to get the number of periodic game ticks run each second.
+	 *
+	 * @return The number of ticks per second.
+	 */
+	public static int getTicksPerSecond() {
+		
+		return ticksPerSecond;
+	}
+
+	/**
+	 * Method to get how long a connection may sit at a login prompt without answering.
+	 *
+	 * @return The login idle timeout in seconds.
+	 */
+	public static int getLoginIdleSeconds() {
+		
+		return loginIdleSeconds;
+	}
+
+	/**
+	 * Method to get how long a connection may take to finish logging in.
+	 *
+	 * @return The overall login timeout in seconds.
+	 */
+	public static int getLoginTimeoutSeconds() {
+		
+		return loginTimeoutSeconds;
+	}
+
+	/**
+	 * Method to get how many bytes of output may wait to be sent to one client.
+	 *
+	 * @return The output limit in bytes.
+	 */
+	public static int getOutputLimit() {
+		
+		return outputLimit;
+	}
+
+	/**
+	 * Method to get how long a client may stay over its output limit.
+	 *
+	 * @return The slow client timeout in seconds.
+	 */
+	public static int getSlowClientSeconds() {
+		
+		return slowClientSeconds;
+	}
+
+	/**
+	 * Method to get whether clients are offered MCCP compressed output.
+	 *
+	 * @return True if compression is offered, false if everybody gets plain text.
+	 */
+	public static boolean getCompression() {
+		
+		return compression;
+	}
+
+	/**
+	 * Method to get how many player saves may be committed to disk together.
+	 *
+	 * @return The largest number of saves in one group commit; 1 commits each on its own.
+	 */
+	public static int getSaveBatch() {
+		
+		return saveBatch;
+	}
+
+	/**
+	 * Method to get how often each Player who has changed is saved automatically.
+	 *
+	 * @return The seconds between one autosave of a Player and the next; 0 if autosave is off.
+	 */
+	public static int getAutosaveSeconds() {
+		
+		return autosaveSeconds;
+	}
+
 	/**
 	 * Method to get whether the seed file has changed or not
 	 *
@@ -186,6 +337,209 @@ public final class Config {
 		}    	
     }
     
+	/**
+	 * Method to read the command line arguments given to the GameServer. Arguments
+	 * take the form --name=value; --network=thread|selector|virtual chooses the networking
+	 * mode, --ticks=N sets the number of game ticks per second, --world=eager|lazy
+	 * chooses whether the world is built at startup or as it's explored, and
+	 * --login-idle=N and --login-timeout=N set how many seconds a connection may
+	 * spend at one login prompt and on the whole login. --output-limit=N sets how
+	 * many bytes may wait to be sent to a client and --slow-client=N how many
+	 * seconds it may stay over that limit before it's disconnected. --mccp=on|off
+	 * chooses whether clients are offered compressed output, and --save-batch=N how
+	 * many player saves may share one commit to disk. --autosave=N sets how many seconds
+	 * pass between autosaves of each Player who has changed, or 0 to turn autosave off.
+	 *
+	 * @param args The command line arguments passed to the GameServer.
+	 */
+    public static void loadArguments(String[] args) {
+    	
+    	// The name and value of one argument
+    	String name		= "";
+    	String value	= "";
+    	
+    	for(int i = 0; i < args.length; i++) {
+    		
+    		// Anything not in the form --name=value is ignored
+    		if (!args[i].startsWith("--") || args[i].indexOf('=') == -1) {
+    			
+    			System.out.println("Ignoring argument: " + args[i]);
+    			continue;
+    		}
+    		
+    		name	= args[i].substring(2, args[i].indexOf('=')).toLowerCase();
+    		value	= args[i].substring(args[i].indexOf('=') + 1).toLowerCase();
+    		
+    		switch(name) {
+    			
+    			case "network":
+    				
+    				if (value.equals(NETWORK_THREAD) || value.equals(NETWORK_SELECTOR) ||
+    					value.equals(NETWORK_VIRTUAL)) {
+    					
+    					networkMode = value;
+    				}
+    				
+    				else {
+    					
+    					System.out.println("Unknown network mode: " + value);
+    				}
+    				
+    				break;
+    				
+    			case "world":
+    				
+    				if (value.equals(WORLD_EAGER) || value.equals(WORLD_LAZY)) {
+    					
+    					worldMode = value;
+    				}
+    				
+    				else {
+    					
+    					System.out.println("Unknown world mode: " + value);
+    				}
+    				
+    				break;
+    				
+    			case "ticks":
+    				
+    				// Keep it between one tick per second and one per millisecond
+    				try {
+    					
+    					ticksPerSecond = Math.max(1, Math.min(1000, Integer.parseInt(value)));
+    				}
+    				
+    				catch (NumberFormatException e) {
+    					
+    					System.out.println("Ticks must be a number: " + value);
+    				}
+    				
+    				break;
+    				
+    			case "login-idle":
+    				
+    				// At least one second
+    				try {
+    					
+    					loginIdleSeconds = Math.max(1, Integer.parseInt(value));
+    				}
+    				
+    				catch (NumberFormatException e) {
+    					
+    					System.out.println("Login idle timeout must be a number: " + value);
+    				}
+    				
+    				break;
+    				
+    			case "login-timeout":
+    				
+    				// At least one second
+    				try {
+    					
+    					loginTimeoutSeconds = Math.max(1, Integer.parseInt(value));
+    				}
+    				
+    				catch (NumberFormatException e) {
+    					
+    					System.out.println("Login timeout must be a number: " + value);
+    				}
+    				
+    				break;
+    				
+    			case "output-limit":
+    				
+    				// At least enough for a screen or two
+    				try {
+    					
+    					outputLimit = Math.max(4096, Integer.parseInt(value));
+    				}
+    				
+    				catch (NumberFormatException e) {
+    					
+    					System.out.println("Output limit must be a number: " + value);
+    				}
+    				
+    				break;
+    				
+    			case "slow-client":
+    				
+    				// At least one second
+    				try {
+    					
+    					slowClientSeconds = Math.max(1, Integer.parseInt(value));
+    				}
+    				
+    				catch (NumberFormatException e) {
+    					
+    					System.out.println("Slow client timeout must be a number: " + value);
+    				}
+    				
+    				break;
+    				
+    			case "mccp":
+    				
+    				if (value.equals("on") || value.equals("off")) {
+    					
+    					compression = value.equals("on");
+    				}
+    				
+    				else {
+    					
+    					System.out.println("MCCP must be on or off: " + value);
+    				}
+    				
+    				break;
+    				
+    			case "save-batch":
+    				
+    				// At least one save per commit
+    				try {
+    					
+    					saveBatch = Math.max(1, Integer.parseInt(value));
+    				}
+    				
+    				catch (NumberFormatException e) {
+    					
+    					System.out.println("Save batch must be a number: " + value);
+    				}
+    				
+    				break;
+    				
+    			case "autosave":
+    				
+    				// Zero turns it off; it can't go backwards
+    				try {
+    					
+    					autosaveSeconds = Math.max(0, Integer.parseInt(value));
+    				}
+    				
+    				catch (NumberFormatException e) {
+    					
+    					System.out.println("Autosave must be a number of seconds: " + value);
+    				}
+    				
+    				break;
+    				
+    			default:
+    				System.out.println("Ignoring argument: " + args[i]);
+    				break;
+    		}
+    	}
+    	
+    	// Notify the Game Admin of what's been set
+    	System.out.println("Network mode set to: " + networkMode);
+    	System.out.println("Ticks per second set to: " + ticksPerSecond);
+    	System.out.println("World mode set to: " + worldMode);
+    	System.out.println("Login timeouts set to: " + loginIdleSeconds + "s idle, " +
+    					   loginTimeoutSeconds + "s total");
+    	System.out.println("Output limit set to: " + outputLimit + " bytes, " +
+    					   slowClientSeconds + "s before disconnecting");
+    	System.out.println("MCCP compression: " + (compression ? "offered" : "off"));
+    	System.out.println("Player saves committed up to " + saveBatch + " at a time");
+    	System.out.println("Autosave: " + (autosaveSeconds > 0 ? "every " + autosaveSeconds + "s" :
+    																"off"));
+    }
+    
     /** Method to prompt for a new Admin if needed. */
     public static void promptForAdmin() {
     	
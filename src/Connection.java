@@ -0,0 +1,82 @@
+import java.io.IOException;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The Connection interface is the channel abstraction between a Player and the network. A
+ *		Player no longer holds a raw InputStream / OutputStream; instead it holds a Connection which
+ *		hands it complete lines of input and accepts text to be sent back to the client.
+ *
+ *	Structure / Process
+ *
+ *		Each networking mode supplies its own Connection. The classic thread-per-accept mode uses a
+ *		SocketConnection wrapped around a blocking Socket, while the selector mode uses a
+ *		ChannelConnection which is filled and drained by the SelectorConnectionManager thread.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Player
+ * @see SocketConnection
+ * @see ChannelConnection
+ */
+public interface Connection {
+
+	/**
+	 * A method to pull the next complete line of input from the client, if there is one.
+	 *
+	 * @return Returns the next line of input without its newline, or null if no complete
+	 *			line has arrived yet.
+	 * @throws IOException Thrown if the underlying connection fails while reading.
+	 */
+	String readLine() throws IOException;
+
+	/**
+	 * A method to send text to the client without waiting on the network. The text should
+	 * already be colorized.
+	 *
+	 * @param text The text to be sent to the client.
+	 * @throws IOException Thrown if the underlying connection fails while writing.
+	 */
+	void write(String text) throws IOException;
+
+	/**
+	 * A method to send already encoded bytes to the client in as few writes as possible.
+	 *
+	 * @param bytes The array holding the bytes to be sent.
+	 * @param offset The index of the first byte to be sent.
+	 * @param length The number of bytes to be sent.
+	 * @throws IOException Thrown if the underlying connection fails while writing.
+	 */
+	void write(byte[] bytes, int offset, int length) throws IOException;
+
+	/**
+	 * A method to close the connection. Any text already written is sent first where the
+	 * Connection is able to do so.
+	 *
+	 * @throws IOException Thrown if the underlying connection fails while closing.
+	 */
+	void close() throws IOException;
+
+	/**
+	 * A method to close the connection at once, throwing away any output not yet sent. Used
+	 * for a client which has stopped reading, whose output would never finish being sent.
+	 */
+	void abort();
+
+	/**
+	 * A method to get how long the client has been over its output limit, which is how long
+	 * output sent to it has been dropped rather than queued.
+	 *
+	 * @return Returns the number of milliseconds the client has been over the limit, or 0 if
+	 *			it's keeping up.
+	 */
+	long getOverLimitMillis();
+
+	/**
+	 * A method to test whether the client has gone away or the connection has been closed.
+	 *
+	 * @return Returns true if the connection is closed and false if it's still usable.
+	 */
+	boolean isClosed();
+}
@@ -0,0 +1,237 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The DiscoveredRooms class is the set of rooms a Player has discovered, as shown on their
+ *		map. It only costs memory for the parts of the World a Player has actually been to, and
+ *		can be saved without looking at any of the rooms they haven't.
+ *
+ *	Structure / Process
+ *
+ *		The set is split into the same chunks as the World. Each chunk a Player has discovered a
+ *		room in is a bitset of World.CHUNK_SIZE * World.CHUNK_SIZE bits, one per room, held in
+ *		a map keyed by the packed chunk coordinates. Testing a room is a single map lookup and a
+ *		bit test.
+ *
+ *		Saved sets are binary: a header, the number of chunks, and for each chunk its key, a mask
+ *		of which of its words have any bits set and then only those words. Older saves were a
+ *		text list of "x y" pairs ending in -1; those are still read by loadLegacy.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Player
+ * @see World
+ */
+public class DiscoveredRooms {
+
+	/** The first four bytes of a binary save, "JWDR". */
+	public static final int MAGIC			= 0x4A574452;
+	/** The version of the binary save format. */
+	private static final int VERSION		= 1;
+	/** The number of 64 bit words in one chunk's bitset. */
+	private static final int WORDS_PER_CHUNK	= World.CHUNK_SIZE * World.CHUNK_SIZE / 64;
+
+	/** Each discovered chunk's bitset, keyed by its packed chunk coordinates. */
+	private HashMap<Long, long[]> chunks;
+	/** The number of discovered rooms. */
+	private int size;
+
+	/** A default constructor for a set with no rooms discovered. */
+	public DiscoveredRooms() {
+
+		chunks	= new HashMap<Long, long[]>();
+		size	= 0;
+	}
+
+	/**
+	 * A method to mark the room at (x, y) as discovered.
+	 *
+	 * @param x The X coordinate of the room.
+	 * @param y The Y coordinate of the room.
+	 */
+	public void discover(int x, int y) {
+
+		long[] bits	= chunks.computeIfAbsent(World.chunkKey(x, y), key -> new long[WORDS_PER_CHUNK]);
+		int index	= World.chunkIndex(x, y);
+
+		// Only count it the first time
+		if ((bits[index >> 6] & (1L << index)) == 0) {
+
+			bits[index >> 6] |= 1L << index;
+			size++;
+		}
+	}
+
+	/**
+	 * A method to mark the room at (x, y) as undiscovered.
+	 *
+	 * @param x The X coordinate of the room.
+	 * @param y The Y coordinate of the room.
+	 */
+	public void undiscover(int x, int y) {
+
+		long[] bits	= chunks.get(World.chunkKey(x, y));
+		int index	= World.chunkIndex(x, y);
+
+		if (bits != null && (bits[index >> 6] & (1L << index)) != 0) {
+
+			bits[index >> 6] &= ~(1L << index);
+			size--;
+		}
+	}
+
+	/**
+	 * A method to test whether the room at (x, y) has been discovered.
+	 *
+	 * @param x The X coordinate of the room.
+	 * @param y The Y coordinate of the room.
+	 * @return Returns true if the room has been discovered and false if not.
+	 */
+	public boolean isDiscovered(int x, int y) {
+
+		long[] bits	= chunks.get(World.chunkKey(x, y));
+		int index	= World.chunkIndex(x, y);
+
+		return bits != null && (bits[index >> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * A method to get the number of discovered rooms.
+	 *
+	 * @return Returns the number of rooms in the set.
+	 */
+	public int size() {
+
+		return size;
+	}
+
+	/** A method to forget every discovered room. */
+	public void clear() {
+
+		chunks.clear();
+		size = 0;
+	}
+
+	/**
+	 * A method to write the set in the binary save format.
+	 *
+	 * @param out The stream to write to.
+	 * @throws IOException Thrown if the stream fails while writing.
+	 */
+	public void save(DataOutputStream out) throws IOException {
+
+		// Which words of a chunk have bits set
+		int wordMask = 0;
+
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(chunks.size());
+
+		for(Map.Entry<Long, long[]> oneChunk: chunks.entrySet()) {
+
+			wordMask = 0;
+
+			for(int i = 0; i < WORDS_PER_CHUNK; i++) {
+
+				if (oneChunk.getValue()[i] != 0) {
+
+					wordMask |= 1 << i;
+				}
+			}
+
+			// Only the words with discovered rooms are written
+			out.writeLong(oneChunk.getKey());
+			out.writeByte(wordMask);
+
+			for(int i = 0; i < WORDS_PER_CHUNK; i++) {
+
+				if ((wordMask & (1 << i)) != 0) {
+
+					out.writeLong(oneChunk.getValue()[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A method to read a set saved in the binary format. The MAGIC number must already have
+	 * been read from the stream.
+	 *
+	 * @param in The stream to read from, positioned just after the MAGIC number.
+	 * @return Returns the loaded set.
+	 * @throws IOException Thrown if the stream fails or holds an unknown version.
+	 */
+	public static DiscoveredRooms load(DataInputStream in) throws IOException {
+
+		DiscoveredRooms rooms	= new DiscoveredRooms();
+		int version				= in.readInt();
+		int chunkCount			= 0;
+		int wordMask			= 0;
+		long key				= 0;
+		long[] bits				= null;
+
+		if (version != VERSION) {
+
+			throw new IOException("Unknown discovered rooms version: " + version);
+		}
+
+		chunkCount = in.readInt();
+
+		for(int c = 0; c < chunkCount; c++) {
+
+			key			= in.readLong();
+			wordMask	= in.readUnsignedByte();
+			bits		= new long[WORDS_PER_CHUNK];
+
+			for(int i = 0; i < WORDS_PER_CHUNK; i++) {
+
+				if ((wordMask & (1 << i)) != 0) {
+
+					bits[i] = in.readLong();
+					rooms.size += Long.bitCount(bits[i]);
+				}
+			}
+
+			rooms.chunks.put(key, bits);
+		}
+
+		return rooms;
+	}
+
+	/**
+	 * A method to read a set saved in the old text format of "x y" pairs ending with -1.
+	 *
+	 * @param fileIn The Scanner to read from.
+	 * @return Returns the loaded set.
+	 */
+	public static DiscoveredRooms loadLegacy(Scanner fileIn) {
+
+		DiscoveredRooms rooms	= new DiscoveredRooms();
+		int roomX				= 0;
+
+		// -1 marks the end of the list
+		while((roomX = fileIn.nextInt()) != -1) {
+
+			rooms.discover(roomX, fileIn.nextInt());
+		}
+
+		return rooms;
+	}
+
+	/**
+	 * A method to describe this set.
+	 *
+	 * @return Returns a String with the number of discovered rooms and chunks.
+	 */
+	public String toString() {
+
+		return "Class: DiscoveredRooms\nRooms: " + size + "\nChunks: " + chunks.size();
+	}
+}
@@ -20,8 +20,37 @@
  */
 public class Equipment {
 
+	/**
+	 * The ascii warrior, compiled once. Placeholders 0 through 8 are each slot's color
+	 * and placeholders 10 through 18 each slot's item name.
+	 */
+	private static final ColorTemplate EQUIPMENT_ART = new ColorTemplate(
+						"{1}         __     __#n\n\r" +
+						"{1}        / < ___ > \\#n\n\r" +
+						"{1}        '-._____.-'#n\n\r" +
+						"{1}         ,#n| ^_^ |{1},\t\t#n[Head:\t{11}#n]\n\r" +
+						"          ((())))\n\r" +
+						"            | |  \n\r" +
+						"{3}       ,{2}############{3}\\#n\t\t[Chest:\t{12}#n]\n\r" +
+						"{3}      /{2}  #########{3},  \\\t\t#n[Arms:\t{13}#n]\n\r" +
+						"{3}     /_<'{2}#########{3}'./_\\#n\t\t[Hands:\t{14}#n]\n\r" +
+						"{3}    '_7_{2} ######### {3}_o_7#n\n\r" +
+						"{4}     (  \\{5}[o-o-o-o]{4}/  )#n\t\t[Belt:\t{15}#n]\n\r" +
+						"{4}      \\|l{2}#########{4}l|/#n\n\r" +
+						"{2}         ####_#### #n\n\r" +
+						"{6}        /    |    \\ #n\n\r" +
+						"{6}        |    |    |#n\t\t[Legs:\t{16}#n]\n\r" +
+						"{6}        |{7}_  _{6}|{7}_  _{7}|#n\n\r" +
+						"{7}        |\\\\//|\\\\//|#n\n\r" +
+						"{7}        \\//\\\\|//\\\\/#n\t\t[Boots:\t{17}#n]\n\r" +
+						"{7}      ___\\\\// \\\\//___#n\n\r" +
+						"{7}     (((___X\\ /X___))) #n\n\r" +
+						"(Use the 'credits' command for ASCII Art author information)\n\r");
+
 	/** An array to hold slots of gear */
 	private Item[] equippedGear;
+	/** A boolean indicating gear was equipped or removed since the Equipment was last saved. */
+	private boolean dirty;
 
 	/** A default constructor to intiialize the equippedGear array to null */
     public Equipment() {
@@ -33,6 +62,8 @@ public class Equipment {
 			
 			equippedGear[i] = null;
 		}
+		
+		dirty = false;
     }
     
     /** 
@@ -62,6 +93,7 @@ public class Equipment {
     	oneItem.setEquipped(true);
     	// Equip the given item
     	equippedGear[oneItem.getLocationWorn()] = oneItem;
+    	dirty = true;
     	// Notify the player they succeeded in wearing the new item
     	output += "You equip " + oneItem.getName() + ".\n\r";
     	
@@ -69,6 +101,23 @@ public class Equipment {
     	return output;
     }
     
+    /**
+	 * A method to test whether gear was equipped or removed since the Equipment was last
+	 * saved.
+	 *
+	 * @return Returns true if the Equipment has changed.
+	 */
+    public boolean isDirty() {
+    	
+    	return dirty;
+    }
+    
+	/** A method to note that the Equipment, as it is now, has been saved. */
+    public void markSaved() {
+    	
+    	dirty = false;
+    }
+    
     /** A method which tests whether an item is equipped or not.
 	 *
 	 * @param oneItem The given item to test to see if it is equipped.
@@ -115,6 +164,7 @@ public class Equipment {
     		output += "You remove " + oneItem.getName() + ".\n\r";
     		// Make sure the spot is now empty
     		equippedGear[itemLoc] = null;
+    		dirty = true;
     	}
 
 		// Otherwise, notify the player they failed    	
@@ -128,16 +178,15 @@ public class Equipment {
     }
 
 	/**
-	 * A method which displays all of the currently equipped gear.
+	 * A method which displays all of the currently equipped gear to the given Player
+	 * in two columns; the left column contains an ascii warrior wearing the given
+	 * equipment while the right column contains a list of body locations and
+	 * equipped items.
 	 *
-	 * @return A String divided into two columns; the left column contains an
-	 *			ascii warrior wearing the given equipment while the right
-	 *			column contains a list of body locations and equipped items.
+	 * @param player The Player to be shown the equipment.
 	 */
-    public String displayEquipment() {
+    public void displayEquipment(Player player) {
     	
-    	// Output for the player
-    	String output		= "";
     	// A simple field to hold the ASCII color
     	String[] gearColor	= new String[9];
     	// A field to hold the name of the item equipped in the location
@@ -163,40 +212,11 @@ public class Equipment {
     		}
     	}
 
-		// ... Credit for the image to b'ger; see "credits" for more information.    	
-    	output += gearColor[1] + "         __     __#n\n\r";
-    	output += gearColor[1] + "        / < ___ > \\#n\n\r";
-    	output += gearColor[1] + "        '-._____.-'#n\n\r";
-    	output += gearColor[1] + "         ,#n| ^_^ |" + gearColor[1] + ",\t\t#n[Head:\t" +
-    				eqList[1] + "#n]\n\r";
-    	output += 				 "          ((())))\n\r";
-    	output +=				 "            | |  \n\r";
-    	output += gearColor[3] + "       ," + gearColor[2] + "############" + gearColor[3] +
-    			  "\\#n\t\t[Chest:\t" + eqList[2] + "#n]\n\r";
-    	output += gearColor[3] + "      /" + gearColor[2] + "  #########" + gearColor[3] + 
-    			  ",  \\\t\t#n[Arms:\t" + eqList[3] + "#n]\n\r";
-    	output += gearColor[3] + "     /_<'" + gearColor[2] + "#########" + gearColor[3] + 
-    			  "'./_\\#n\t\t[Hands:\t" + eqList[4] + "#n]\n\r";
-    	output += gearColor[3] + "    '_7_" + gearColor[2] + " ######### " + gearColor[3] +
-    			  "_o_7#n\n\r";
-    	output += gearColor[4] + "     (  \\" + gearColor[5] + "[o-o-o-o]" + gearColor[4] +
-    			  "/  )#n\t\t[Belt:\t" + eqList[5] + "#n]\n\r";
-    	output += gearColor[4] + "      \\|l" + gearColor[2] + "#########" + gearColor[4] + 
-    			  "l|/#n\n\r";
-    	output += gearColor[2] + "         ####_#### #n\n\r";
-    	output += gearColor[6] + "        /    |    \\ #n\n\r";
-    	output += gearColor[6] + "        |    |    |#n\t\t[Legs:\t" + eqList[6] + "#n]\n\r";
-    	output += gearColor[6] + "        |" + gearColor[7] + "_  _" + gearColor[6] + "|" + 
-    			  gearColor[7] + "_  _" + gearColor[7] + "|#n\n\r";
-    	output += gearColor[7] + "        |\\\\//|\\\\//|#n\n\r";
-    	output += gearColor[7] + "        \\//\\\\|//\\\\/#n\t\t[Boots:\t" + eqList[7] +
-    			  "#n]\n\r";
-    	output += gearColor[7] + "      ___\\\\// \\\\//___#n\n\r";
-    	output += gearColor[7] + "     (((___X\\ /X___))) #n\n\r";
-    	output += "(Use the 'credits' command for ASCII Art author information)\n\r";
-
-		// Send the equipment on to the player
-		return output;    	
+		// ... Credit for the image to b'ger; see "credits" for more information.
+		player.message(EQUIPMENT_ART, gearColor[0], gearColor[1], gearColor[2], gearColor[3],
+					   gearColor[4], gearColor[5], gearColor[6], gearColor[7], gearColor[8],
+					   "", eqList[0], eqList[1], eqList[2], eqList[3], eqList[4], eqList[5],
+					   eqList[6], eqList[7], eqList[8]);
     }
     
     /** 
@@ -0,0 +1,138 @@
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The GameScheduler class decides when the main game loop runs. Rather than sleeping for a
+ *		fixed amount of time between passes, the loop sleeps until either a client sends input or
+ *		the next periodic tick comes due, so a command is handled as soon as it arrives while
+ *		periodic work (Player state, and in time Mobs and the World) still runs at a fixed rate.
+ *
+ *	Structure / Process
+ *
+ *		The GameServer starts the scheduler just before entering the game loop. Each pass asks
+ *		ticksDue how many periodic ticks to run, handles any input, and then calls waitForWork.
+ *		Connection threads call signalInput whenever a complete line arrives, which wakes the loop
+ *		early. The classic networking mode has nobody to signal input, as its Sockets are polled
+ *		by the game loop itself, so in that mode the loop also wakes every INPUT_POLL_MILLIS.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see GameServer
+ * @see Config#getTicksPerSecond()
+ */
+public final class GameScheduler {
+
+	/** How often, in milliseconds, the game loop polls for input when nobody can signal it. */
+	public static final long INPUT_POLL_MILLIS	= 10;
+	/** The most ticks run back to back when the loop has fallen behind. */
+	private static final int MAX_CATCH_UP		= 5;
+
+	/** The monitor the game loop waits on. */
+	private static final Object wakeUp			= new Object();
+
+	/** A boolean indicating input arrived since the game loop last went to sleep. */
+	private static boolean inputSignalled		= false;
+	/** The length of one tick, in milliseconds. */
+	private static long tickMillis				= 100;
+	/** The time, in milliseconds, when the next tick is due. */
+	private static long nextTick				= 0;
+	/** A boolean indicating the game loop must poll for input rather than wait for a signal. */
+	private static boolean pollForInput			= false;
+
+	/** The private constructor ensures this class cannot be instantiated. */
+	private GameScheduler() {
+
+		throw new AssertionError();
+	}
+
+	/**
+	 * A method to start the scheduler with the configured tick rate.
+	 *
+	 * @param pollForInput A boolean indicating whether the game loop needs to poll for input
+	 *						because the networking mode cannot signal it.
+	 */
+	public static void start(boolean pollForInput) {
+
+		GameScheduler.pollForInput	= pollForInput;
+		tickMillis					= 1000 / Config.getTicksPerSecond();
+		nextTick					= System.currentTimeMillis();
+	}
+
+	/**
+	 * A method to find how many periodic ticks have come due since the last call. If the game
+	 * has fallen far behind, the missed ticks beyond MAX_CATCH_UP are skipped rather than run
+	 * in a burst.
+	 *
+	 * @return Returns the number of ticks the game loop should run now.
+	 */
+	public static int ticksDue() {
+
+		long now	= System.currentTimeMillis();
+		int ticks	= 0;
+
+		// Count every tick whose time has come
+		while(nextTick <= now && ticks < MAX_CATCH_UP) {
+
+			nextTick += tickMillis;
+			ticks++;
+		}
+
+		// Too far behind; start the schedule again from now
+		if (nextTick <= now) {
+
+			nextTick = now + tickMillis;
+		}
+
+		return ticks;
+	}
+
+	/**
+	 * A method, safe to call from any thread, to wake the game loop because input has
+	 * arrived.
+	 */
+	public static void signalInput() {
+
+		synchronized(wakeUp) {
+
+			inputSignalled = true;
+			wakeUp.notifyAll();
+		}
+	}
+
+	/**
+	 * A method which puts the game loop to sleep until input is signalled or the next tick is
+	 * due, whichever comes first.
+	 */
+	public static void waitForWork() {
+
+		long sleepFor = 0;
+
+		synchronized(wakeUp) {
+
+			sleepFor = nextTick - System.currentTimeMillis();
+
+			// Sockets which can't signal us have to be checked regularly
+			if (pollForInput && sleepFor > INPUT_POLL_MILLIS) {
+
+				sleepFor = INPUT_POLL_MILLIS;
+			}
+
+			// Sleep unless there's already something to do
+			if (!inputSignalled && sleepFor > 0) {
+
+				try {
+
+					wakeUp.wait(sleepFor);
+				}
+
+				// Catch any Exceptions
+				catch (InterruptedException e) {
+
+					System.out.println("Exception in GameScheduler.waitForWork: " + e.getMessage());
+				}
+			}
+
+			inputSignalled = false;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 // Import necessary packages, classes, and interfaces
 import java.net.*;
 import java.io.*;
+import java.nio.channels.ServerSocketChannel;
 import java.util.Scanner;
 
 /**
@@ -57,15 +58,33 @@ public class GameServer {
 		
 		// ServerSocket object
 		ServerSocket server	= null;
+		
+		// ServerSocketChannel object, used in the selector networking mode
+		ServerSocketChannel serverChannel = null;
+
+		// Pick up any settings from the command line
+		Config.loadArguments(args);
 
 		// Initializing the ServerSocket object
 		try {
 			
-			// Ensure it binds to the given Config PORT
-			server = new ServerSocket(Config.PORT);
+			// The selector mode needs a channel it can use without blocking
+			if (Config.getNetworkMode().equals(Config.NETWORK_SELECTOR)) {
+				
+				serverChannel = ServerSocketChannel.open();
+				server = serverChannel.socket();
+			}
+			
+			else {
+				
+				server = new ServerSocket();
+			}
 			
 			// If the program terminates abnormally, allow the port to be reused immediately
 			server.setReuseAddress(true);
+			
+			// Ensure it binds to the given Config PORT
+			server.bind(new InetSocketAddress(Config.PORT));
 		}
 
 		// Catch any given Exceptions
@@ -95,35 +114,95 @@ public class GameServer {
 		// Load the dynamic building names and descriptions
 		Room.loadDynamicBuildingValues();
 
-		// Dynamically load the world, arbitrary number of rooms
-		defaultZone.dynamicallyBuildWorld(500);
+		// Build the world as it's explored
+		if (Config.getWorldMode().equals(Config.WORLD_LAZY)) {
+			
+			World.startLazyGeneration();
+		}
+		
+		// Or dynamically load the world now, arbitrary number of rooms
+		else {
+			
+			defaultZone.dynamicallyBuildWorld(500);
+		}
 		
 		// Dynamically populate the world with items
 		Item.dynamicallyBuildItems(1, -1, -1, true);
 
+		// Every Player is saved in one store, indexed up front
+		PlayerStore.open();
+
+		// Player saves are written by their own thread
+		PersistenceQueue.start();
+
 		// Notify the admin of successful load
 		System.out.println("JavaWorld ready to rock on port " + Config.PORT);
 		
 		// Create a separate thread for connection management
-		(new Thread(new ManageSocketConnections(server))).start();
+		try {
+			
+			// One thread services every connection
+			if (serverChannel != null) {
+				
+				(new Thread(new SelectorConnectionManager(serverChannel))).start();
+			}
+			
+			// Or a session thread reading each connection
+			else if (Config.getNetworkMode().equals(Config.NETWORK_VIRTUAL)) {
+
+				(new Thread(new SessionThreadManager(server))).start();
+			}
+			
+			// Or one thread accepting blocking Sockets for the game loop to poll
+			else {
+
+				(new Thread(new ManageSocketConnections(server))).start();
+			}
+		}
+		
+		// Catch any Exceptions
+		catch (IOException e) {
+			
+			System.out.println("Issue starting connection management: " + e.getMessage() +
+							   "\nExiting...");
+			System.exit(0);
+		}
+
+		// Whether the last pass found input waiting
+		boolean hadInput = false;
+
+		// Periodic ticks start now; the classic Sockets have to be polled for input
+		GameScheduler.start(Config.getNetworkMode().equals(Config.NETWORK_THREAD));
 
 		// Main Game Loop
 		while(gameLoop) {
 
-			// To conform to the requirements / limitations of the project
-			synchronized(Player.class) {
+			// Only this thread touches the game, so no lock is needed; the network threads
+			// hand it input through each connection's LineQueue
+
+			// Run every periodic tick which has come due
+			for(int ticks = GameScheduler.ticksDue(); ticks > 0; ticks--) {
 
 				// Update the Player's general state (thirst, hunger, etc)
 				Player.updateState();
-				// Check if they have any commands waiting
-				Player.interpretInput();				
+				// Save a few of the Players who've changed
+				Autosave.tick();
+				// Hang up on any client whose Socket has stopped taking output
+				StreamWriter.abortStalled();
 			}
 
-			// Not an ideal solution; ensures that incoming connections are added quickly
-			Thread.yield();
-			
-			// Avoid excessive CPU use, 10 loops per second max
-			ToolKit.slow(10);
+			// Move any logins along which have new input
+			hadInput = LoginSession.advanceAll();
+			// Check if they have any commands waiting
+			hadInput = Player.interpretInput() || hadInput;
+			// Send everybody everything they were sent this loop
+			Player.flushAllOutput();
+
+			// Sleep until there's input or a tick is due, unless there may be more input waiting
+			if (!hadInput) {
+
+				GameScheduler.waitForWork();
+			}
 
 		} // gameLoop
 		
@@ -22,48 +22,94 @@ import java.io.IOException;
  *		This information is then tested in the checkCommand method which is what actually pairs
  *		the input String to a command (or notifies the user they entered gibberish). Then the
  *		method is executed upon the Player and any additional arguments they may have sent.
+ *
+ *		Every command is registered with a CommandTable when the class loads. The order they're
+ *		registered in decides which command an abbreviation runs, so "n" is north and not name.
+ *		The commands command lists them from the same tables, in the same order, so there's no
+ *		second list of names to keep up to date.
  *</pre>
  * @author Nicholas Warner
  * @version 5.1, May 2015
  */
 public final class Interpreter {
 
-	/** A list of all available commands. */
-	public static final String[] commands = {
-							"chat",
-							"laugh",
-							"dance",
-							"name",
-							"look",
-							"get",
-							"inventory",
-							"commands",
-							"east",
-							"west",
-							"north",
-							"south",
-							"score",
-							"quit",
-							"who",
-							"map",
-							"remove",
-							"equipment",
-							"save",
-							"wear",
-							"credits",
-							"title",
-							"hangman"
-							};
-
-	/** A list of all available admin commands. */
-	public static final String[] adminCommands = {
-		
-							"shutdown",
-							"ilist",
-							"freeze",
-							"unfreeze",
-							"info"
-                            };
+	/** The text of the credits command, compiled once. */
+	private static final ColorTemplate CREDITS = new ColorTemplate(
+						"JavaWorld was created by me, Nicholas Warner for my Java2 final project." +
+						" All code is originally written by me, Nicholas Warner. Specific pieces " +
+						"of code were written for my Java 1 final project. These include:\n\n\r" +
+						"\t- The MiniMap and Map methods (with slight tweaks)\n\r" +
+						"\t- The structure of the checkCommand method in the Interpreter class\n\r" +
+						"\t- Approximately 60 lines from the ToolKit class\n\r" +
+						"\t- Approximately 30 lines from the Item class\n\r" +
+						"\t- Approximately 60 lines from the Room class\n\r" +
+						"\t- Approximately 60 lines from the World class\n\r" +
+						"\t- Approximately 120 lines from the Player class\n\n\r" +
+						"The remaining ~5000+ lines of code and comments were written over the " +
+						"course of the final two weeks of April (~9 days in total).\n\n\r" +
+						"The inspiration for this game came from the Multi-User-Dungeons (MUDs)" +
+						", specifically those in the Aber, DIKU, Circle, Rom, and GodWars " +
+						"families that I used to play as a child in the '90s and early 2000s." +
+						"\n\n\r#RCredit goes to b'ger who's ASCII artwork was used for the " +
+						"equipment model. The ASCII artwork was found at: \n\r" +
+						"\t- http://www.chris.com/ascii/index.php?art=people/vikings\n\r");
+
+	/** Every command a Player can run, registered in order of precedence. */
+	private static final CommandTable playerCommands		= new CommandTable();
+	/** Every command only the admin can run, consulted after the Player commands. */
+	private static final CommandTable adminCommandTable	= new CommandTable();
+
+	// Register the commands; the earlier a command is registered, the more abbreviations it wins
+	static {
+
+		// Movement
+		playerCommands.register("east",			(player, argument) -> commandEast(player));
+		playerCommands.register("north",		(player, argument) -> commandNorth(player));
+		playerCommands.register("south",		(player, argument) -> commandSouth(player));
+		playerCommands.register("west",			(player, argument) -> commandWest(player));
+
+		// Important / Interactional Commands
+		playerCommands.register("save",			(player, argument) -> commandSavePlayer(player));
+		playerCommands.register("chat",			Interpreter::commandChat);
+		playerCommands.register("name",			Interpreter::commandName);
+		playerCommands.register("look",			(player, argument) -> commandLook(player, argument, false));
+		playerCommands.register("recall",		(player, argument) -> commandRecall(player));
+		playerCommands.register("get",			Interpreter::commandGet);
+		playerCommands.registerAlias("grab",	"get");
+		playerCommands.register("drop",			Interpreter::commandDrop);
+		playerCommands.register("inventory",	(player, argument) -> commandInventory(player));
+		playerCommands.register("remove",		Interpreter::commandRemove);
+		playerCommands.register("equipment",	(player, argument) -> commandShowEquipped(player));
+		playerCommands.register("wear",			Interpreter::commandEquip);
+
+		// Informational Commands
+		playerCommands.register("commands",		(player, argument) -> commandCommands(player));
+		playerCommands.register("score",		(player, argument) -> commandScore(player));
+		playerCommands.register("who",			(player, argument) -> commandWho(player));
+		playerCommands.register("map",			(player, argument) -> commandMap(player));
+		playerCommands.register("credits",		(player, argument) -> commandCredits(player));
+		playerCommands.register("title",		Interpreter::commandTitle);
+
+		// MiniGames
+		playerCommands.register("hangman",		Interpreter::commandHangman);
+
+		// Social Commands
+		playerCommands.register("laugh",		Interpreter::commandLaugh);
+		playerCommands.register("dance",		Interpreter::commandDance);
+
+		// Quit
+		playerCommands.register("quit",			(player, argument) -> commandQuit(player));
+
+		// Item Commands
+		adminCommandTable.register("ilist",		(player, argument) -> commandItemsList(player));
+		adminCommandTable.registerAlias("itemlist",	"ilist");
+
+		// Superduper Admin Commands
+		adminCommandTable.register("shutdown",	(player, argument) -> commandShutdown(player));
+		adminCommandTable.register("freeze",	Interpreter::commandFreeze);
+		adminCommandTable.register("unfreeze",	Interpreter::commandUnFreeze);
+		adminCommandTable.register("info",		(player, argument) -> Player.infoAll(argument));
+	}
 
 	/** Private constructor ensures Interpreter cannot be instantiated. */
 	private Interpreter() {
@@ -90,6 +136,10 @@ public final class Interpreter {
         
 		// In case they want to quit
 		boolean quit = false;
+
+		// The full name of the command and the command itself, once matched
+		String fullName = null;
+		Command command = null;
 		
 		// Prepare our Input
 		playerInput = playerInput.trim();
@@ -116,66 +166,24 @@ public final class Interpreter {
 			 "recall".startsWith(commandName)) && !commandName.equals("") &&
 			 !player.getFrozen()) {
 
-			// Movement	
-			if		("east".startsWith(commandName))	{	commandEast(player);	}
-			else if ("north".startsWith(commandName))	{	commandNorth(player);	}
-			else if ("south".startsWith(commandName))	{	commandSouth(player);	}
-			else if ("west".startsWith(commandName))	{	commandWest(player);	}		
-	
-			// Important / Interactional Commands
-			else if ("save".startsWith(commandName))	{	commandSavePlayer(player);			}
-			else if ("chat".startsWith(commandName))	{	commandChat(player, playerInput);	}
-			else if ("name".startsWith(commandName))	{	commandName(player, playerInput);	}
-			else if ("look".startsWith(commandName))	{	commandLook(player, playerInput, false);	}
-			else if ("recall".startsWith(commandName))	{	commandRecall(player);				}
-			else if ("get".startsWith(commandName))		{	commandGet(player, playerInput);	}
-			else if ("grab".startsWith(commandName))	{	commandGet(player, playerInput);	}
-			else if ("drop".startsWith(commandName))	{	commandDrop(player, playerInput);	}
-			else if ("inventory".startsWith(commandName)) 
-					/* inventory */						{	commandInventory(player);			}
-			else if ("remove".startsWith(commandName))	{	commandRemove(player, playerInput);	}
-			else if ("equipment".startsWith(commandName))	
-					/* equipment */						{	commandShowEquipped(player);		}
-			else if ("wear".startsWith(commandName))	{	commandEquip(player, playerInput);	}
-
-			// Informational Commands
-			else if ("commands".startsWith(commandName)){	commandCommands(player);	}
-			else if ("score".startsWith(commandName))	{	commandScore(player);		}
-			else if ("who".startsWith(commandName))		{	commandWho(player);			}
-			else if ("map".startsWith(commandName))		{	commandMap(player);			}
-			else if ("credits".startsWith(commandName))	{	commandCredits(player);		}
-			else if ("title".startsWith(commandName))	{	commandTitle(player, playerInput);	}
-
-			// MiniGames
-			else if ("hangman".startsWith(commandName))	{	commandHangman(player, playerInput);	}
-
-			// Social Commands	
-			else if ("laugh".startsWith(commandName))	{	commandLaugh(player, playerInput);	}		
-			else if ("dance".startsWith(commandName))	{	commandDance(player, playerInput);	}
-			
-			// Quit
-			else if ("quit".startsWith(commandName))	{	commandQuit(player); quit = true;	}
+			// Everybody's commands come first, then the admin's
+			fullName = playerCommands.resolve(commandName);
 
-			/*	---------------------------=Admin / Broken Commands=---------------------------	*/
-			else if (player.getName().equalsIgnoreCase(Config.getAdmin())) {
+			if (fullName != null) {
 
-				// Item Commands
-				if		("ilist".startsWith(commandName))		{	commandItemsList(player);		}
-				else if ("itemlist".startsWith(commandName))	{	commandItemsList(player);		}
+				command = playerCommands.getCommand(fullName);
+			}
 
-				// Superduper Admin Commands	
-				else if ("shutdown".startsWith(commandName))	{	commandShutdown(player);		}
-				else if ("freeze".startsWith(commandName))		{	commandFreeze(player, playerInput); }
-				else if ("unfreeze".startsWith(commandName))	{	commandUnFreeze(player, playerInput); }
-				else if ("info".startsWith(commandName))		{	Player.infoAll(playerInput);	}
+			else if (player.isAdmin() && (fullName = adminCommandTable.resolve(commandName)) != null) {
 
-				else {
-					
-					player.message("Huh? Type \"commands\" for a list of commands.\n\r");
-					foundCommand = false;				
-				}
+				command = adminCommandTable.getCommand(fullName);
+			}
+
+			if (command != null) {
+
+				command.execute(player, playerInput);
+				quit = fullName.equals("quit");
 			}
-			/* --------------------------=End Admin / Broken Commands=-------------------------	*/
 
 			else {
 				
@@ -185,14 +193,14 @@ public final class Interpreter {
 
 			if (!quit) {
 				
-				player.message(player.buildPrompt());
+				player.sendPrompt();
 			}			
 		}
 
 		else if (player.getHealth() <= 0) {
 			
 			player.message("You are dead. :( You can can recall (try again) or quit.\n\r");
-			player.message(player.buildPrompt());
+			player.sendPrompt();
 			foundCommand = false;
 		}
 		
@@ -296,6 +304,7 @@ public final class Interpreter {
 		
 		System.out.println("Cleaning up. Game is exiting.");
 
+		// Waits on the saves, but only so long
 		Player.saveAndCloseConnections();
 
 		System.exit(0);
@@ -312,6 +321,8 @@ public final class Interpreter {
 		
 		try {
 
+			// Make sure they see everything before we hang up
+			player.flushOutput();
 			player.playerConnection.close();
 		}
 		
@@ -450,21 +461,25 @@ public final class Interpreter {
 		String lConnect;
 		String rConnect;
 		String inRoom;
+		Room room;
 		
 		for(int i = player.getY() + mapSize; i >= player.getY() - mapSize; i--) {
 			
 			for(int j = player.getX() - mapSize; j <= player.getX() + mapSize; j++) {
 				
+				// The room knows its own exits
+				room = World.getRoom(j, i);
+
 				// if they discovered the room OR the room exists
 				// color the room information differently IF it exists
-				if (player.discoveredRoom(j, i) || World.checkRoomExists(j, i)) {
+				if (player.discoveredRoom(j, i) || room != null) {
 					
 					if (player.discoveredRoom(j - 1, i) && player.discoveredRoom(j, i)) {
 						
 						lConnect = "-";
 					}
 					
-					else if (World.checkRoomExists(j - 1, i)) {
+					else if (room != null && room.hasExit(Room.WEST)) {
 						
 						lConnect = "#r-#n";
 					}
@@ -479,7 +494,7 @@ public final class Interpreter {
 						rConnect = "-";
 					}
 					
-					else if (World.checkRoomExists(j + 1, i)) {
+					else if (room != null && room.hasExit(Room.EAST)) {
 						
 						rConnect = "#r-#n";
 					}
@@ -519,12 +534,14 @@ public final class Interpreter {
 			
 			for(int j = player.getX() - mapSize; j <= player.getX() + mapSize; j++) {
 				
+				room = World.getRoom(j, i);
+
 				if (player.discoveredRoom(j, i) && player.discoveredRoom(j, i - 1)) {
 					
 					map += " | ";
 				}
 				
-				else if (World.checkRoomExists(j, i) && World.checkRoomExists(j, i - 1)) {
+				else if (room != null && room.hasExit(Room.SOUTH)) {
 					
 					map += " #r|#n ";
 				}
@@ -584,6 +601,7 @@ public final class Interpreter {
 		String lConnect;
 		String rConnect;
 		String inRoom;
+		boolean roomExists;
 		
 		for(int i = player.getY() + mapSize; i > player.getY() - mapSize; i--) {
 			
@@ -591,8 +609,9 @@ public final class Interpreter {
 			
 			for(int j = player.getX() - mapSize; j < player.getX() + mapSize; j++) {
 				
-				if (player.discoveredRoom(j, i) || (player.isAdmin() &&
-					World.checkRoomExists(j, i))) {
+				roomExists = World.checkRoomExists(j, i);
+
+				if (player.discoveredRoom(j, i) || (player.isAdmin() && roomExists)) {
 					
 					if (player.discoveredRoom(j - 1, i) && player.discoveredRoom(j, i)) {
 						
@@ -624,7 +643,7 @@ public final class Interpreter {
 						inRoom = " ";
 					}
 					
-					if (World.checkRoomExists(j, i)) {
+					if (roomExists) {
 
 						oneCell = lConnect + "#r[" + inRoom + "#r]#n" + rConnect;
 					}
@@ -673,8 +692,8 @@ public final class Interpreter {
 	}
 
 	/**
-	 * A method meant to list all of the available commands from the command list to a
-	 *	given player.
+	 * A method meant to list all of the available commands, in the order they're registered,
+	 *	to a given player.
 	 *
 	 * @param player The given player using the Commands command.
 	 */
@@ -683,9 +702,9 @@ public final class Interpreter {
 		int lineLength = 0;
 		String output = "Here is a command list:\n\r";
 		
-		for(int i = 0; i < commands.length; i++) {
+		for(String oneCommand: playerCommands.getNames()) {
 
-			output += String.format("%-12s", commands[i]);
+			output += String.format("%-12s", oneCommand);
 			
 			lineLength += 12;
 			
@@ -703,9 +722,9 @@ public final class Interpreter {
 			output += "\n\r--------------------------- #g== | #yAdmin Commands#n #g| " +
 					  "==#n ---------------------------\n\r";
 			
-			for(int i = 0; i < adminCommands.length; i++) {
+			for(String oneCommand: adminCommandTable.getNames()) {
 
-				output += String.format("%12s", adminCommands[i]);
+				output += String.format("%12s", oneCommand);
 				
 				lineLength += 12;
 
@@ -863,8 +882,6 @@ public final class Interpreter {
 		
 		String output = "";
 		String miniMap = "";
-		String temp = "";
-		boolean foundItem = false;
 		Room room = player.getRoom();
 		
 		if (startNewLine) {
@@ -872,37 +889,15 @@ public final class Interpreter {
 			player.message("\n\r");
 		}
 
-		// The room location, name, exits, description		
-		output += (room.getNewRoomFlag() ? "#r<NewRoom>#n" : "") + "[#y" + room.getX() + 
-				  ", " + room.getY() + "#n]: #g" + room.getRoomName() + "#n\n";
-		output += room.getExits(room.getX(), room.getY());
-		output += room.getRoomDescription() + "\n";
-
-		// Display any players in the room
-		temp = Player.getPlayersInRoom(player);
-		
-		// If there are no players, well, notify of that
-		if (temp.equals("")) {
-			
-			output += "There are no players in this room.\n";
-		}
-		
-		else {
-			
-			output += temp;
-		}
-		
-		// Display the room's inventory
-		output += room.getInventory();
+		// The room location, name, exits, description, players and items, already formatted;
+		// the room keeps what's the same for everyone who looks
+		output = room.getView(player);
 		
 		// Build the minimap
 		miniMap = minimap(player);
 
-		// Make sure the output is formatted nicely
-		output = TextManipulator.splitAString(output, 90);
-
 		// Place the minimap on the left and the room text on the right
-		output = TextManipulator.smushLeft(miniMap, output);
+		output = TextLayout.columns(miniMap, output);
 		
 		// Message the given player the description
 		player.message(output);
@@ -985,7 +980,7 @@ public final class Interpreter {
 	 */
 	public static void commandShowEquipped(Player player) {
 		
-		player.message(player.getAllEquipment());
+		player.showAllEquipment();
 	}
 	
 	/**
@@ -995,26 +990,7 @@ public final class Interpreter {
 	 */
 	public static void commandCredits(Player player) {
 		
-		String output = "JavaWorld was created by me, Nicholas Warner for my Java2 final project." +
-						" All code is originally written by me, Nicholas Warner. Specific pieces " +
-						"of code were written for my Java 1 final project. These include:\n\n\r" +
-						"\t- The MiniMap and Map methods (with slight tweaks)\n\r" +
-						"\t- The structure of the checkCommand method in the Interpreter class\n\r" +
-						"\t- Approximately 60 lines from the ToolKit class\n\r" +
-						"\t- Approximately 30 lines from the Item class\n\r" +
-						"\t- Approximately 60 lines from the Room class\n\r" +
-						"\t- Approximately 60 lines from the World class\n\r" +
-						"\t- Approximately 120 lines from the Player class\n\n\r" +
-						"The remaining ~5000+ lines of code and comments were written over the " +
-						"course of the final two weeks of April (~9 days in total).\n\n\r" +
-						"The inspiration for this game came from the Multi-User-Dungeons (MUDs)" +
-						", specifically those in the Aber, DIKU, Circle, Rom, and GodWars " +
-						"families that I used to play as a child in the '90s and early 2000s." +
-						"\n\n\r#RCredit goes to b'ger who's ASCII artwork was used for the " +
-						"equipment model. The ASCII artwork was found at: \n\r" +
-						"\t- http://www.chris.com/ascii/index.php?art=people/vikings\n\r";
-		
-		player.message(output);
+		player.message(CREDITS);
 	}
 
 	/**
@@ -29,12 +29,15 @@ public class Inventory {
 	private LinkedList<Item> itemList;
 	/** A boolean meant to indicate whether the Inventory belongs to a room or player. */
 	private boolean isARoom;
+	/** A boolean indicating Items were added or removed since the Inventory was last saved. */
+	private boolean dirty;
 
 	/** A default constructor initializing the itemList LinkedList; assumes isARoom is false. */
 	public Inventory() {
 		
 		itemList = new LinkedList<Item>();
 		isARoom = false;
+		dirty = false;
 	}
 
 	/**
@@ -47,6 +50,7 @@ public class Inventory {
 
 		itemList = new LinkedList<Item>();
 		this.isARoom = isARoom;
+		dirty = false;
     }
 
 	/**
@@ -57,6 +61,7 @@ public class Inventory {
     public void addToInventory(Item oneItem) {
     	
     	itemList.add(oneItem);
+    	dirty = true;
     }
     
 	/**
@@ -68,9 +73,26 @@ public class Inventory {
     public String removeFromInventory(Item oneItem) {
     	
     	itemList.remove(oneItem);
+    	dirty = true;
     	return oneItem.getName() + " was dropped from inventory.\n\r";
     }
 
+	/**
+	 * A method to test whether Items were added or removed since the Inventory was last saved.
+	 *
+	 * @return Returns true if the Inventory has changed.
+	 */
+    public boolean isDirty() {
+    	
+    	return dirty;
+    }
+    
+	/** A method to note that the Inventory, as it is now, has been saved. */
+    public void markSaved() {
+    	
+    	dirty = false;
+    }
+    
 	/**
 	 * A method meant to display the Inventory by returning it as a String.
 	 *
@@ -205,60 +227,42 @@ public class Inventory {
     }
     
     /**
-	 * A method used to save this Inventory to a file.
+	 * A method to write this Inventory in the binary save format; the number of Items, then
+	 * each Item.
 	 *
-	 * @param playerName The name of the Player to which the Inventory is owned.
+	 * @param out The stream to write to.
+	 * @throws IOException Thrown if the stream fails while writing.
 	 */
-    public void saveInventory(String playerName) {
-    	
-    	// We use PrintWriter for file output
-    	PrintWriter fileOut = null;
-    	// Each item is temporarily held
-    	Item tempItem = null;
+    public void save(DataOutputStream out) throws IOException {
     	
-    	// We make sure the filename is lowercase
-    	playerName = playerName.toLowerCase();
+    	out.writeInt(itemList.size());
     	
-    	// And here we go!
-    	try {
+    	// Every item, in order
+    	for(Item oneItem: itemList) {
     		
-    		// Let's open the file for writing
-    		fileOut = new PrintWriter(new File("../player/" + playerName + ".inventory"));
-    		
-    		// Let's go through every item
-    		for(int i = 0; i < itemList.size(); i++) {
-    			
-    			// Hold onto it
-    			tempItem = itemList.get(i);
-    			// Printout it's toString
-    			fileOut.print(tempItem.toString());
-    			// Printout it's ItemDescription toString
-    			fileOut.print(tempItem.iDescToString().toString());
-    		}
-    		
-    		// -1 signifies EOF
-   			fileOut.println("-1");
-   			
-   			// Always close the file!
-   			fileOut.close();
-    	}
- 
- 		// Catch Exceptions   	
-    	catch (IOException e) {
-    		
-    		System.out.println("IOException in saveInventory: " + e.getMessage());
-    		System.exit(0);
+    		oneItem.save(out);
     	}
+    }
+    
+    /**
+	 * A method to add every Item saved in the binary format to this Inventory.
+	 *
+	 * @param in The stream to read from.
+	 * @throws IOException Thrown if the stream fails while reading.
+	 */
+    public void load(DataInputStream in) throws IOException {
     	
-    	catch (Exception e) {
+    	int itemCount = in.readInt();
+    	
+    	for(int i = 0; i < itemCount; i++) {
     		
-    		System.out.println("Exception in saveInventory: " + e.getMessage());
-    		System.exit(0);
+    		itemList.add(Item.load(in));
     	}
     }
     
     /**
-	 * A method to load up the Inventory of a given playerName from a save file.
+	 * A method to load up the Inventory of a given playerName from an old text save file, for
+	 * Players who haven't been saved since the binary player record replaced it.
 	 *
 	 * @param playerName A String meant to contain the name of the player who's
 	 *						Inventory is being loaded.
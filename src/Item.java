@@ -1,8 +1,12 @@
 import java.util.Scanner;
 import java.util.LinkedList;
+import java.util.Random;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintWriter;
 
 /**
@@ -83,10 +87,25 @@ public class Item {
 	 */
 	public Item(int oid, int itemX, int itemY, int wornOnLocation, int iLevel) {
 		
+		this(oid, itemX, itemY, wornOnLocation, iLevel, null);
+	}
+
+	/**
+	 * Initializes this Item as above, but chooses its name with the given generator.
+	 *
+	 * @param oid The unique Object ID of this Item.
+	 * @param itemX The X coordinate location of this Item.
+	 * @param itemY The Y coordinate location of this Item.
+	 * @param wornOnLocation The location that the Item is worn on by a Player.
+	 * @param iLevel The Item Level, an indication of its Strength.
+	 * @param rng The generator the Item's name is chosen with, or null for Math.random.
+	 */
+	public Item(int oid, int itemX, int itemY, int wornOnLocation, int iLevel, Random rng) {
+		
 		this.oid		= oid;
 		this.itemX		= itemX;
 		this.itemY		= itemY;
-        iDesc			= new ItemDescription(wornOnLocation, iLevel);
+        iDesc			= new ItemDescription(wornOnLocation, iLevel, rng);
         isEquipped		= false;
 	}
 
@@ -264,7 +283,8 @@ public class Item {
 	
 	/** 
 	 * A method to dynamically build items from randomized Item values, placing them within
-	 * a given room (via x and y coordinate) OR placed into a default room.
+	 * a given room (via x and y coordinate) OR placed into a default room. Only the room the
+	 * Items actually go in is checked, so in the lazy world mode no other chunk is generated.
 	 *
 	 * @param numberOfItems The given number of Items intended to be generated by the method.
 	 * @param roomX The X location of the Room where the Item will be placed.
@@ -273,17 +293,17 @@ public class Item {
 	 *				and Y room coordinates or a default location (HOMELOCATION)
 	 * @see #items
 	 * @see World#HOMELOCATION
-	 * @see World#MAXROOMS
+	 * @see World#checkRoomExists(int, int)
 	 * @see ToolKit#rand(int, int)
 	 * @see ItemDescription#NUMBER_WORN_ON_LOCATIONS
 	 */
     public static void dynamicallyBuildItems(int numberOfItems, int roomX, int roomY, boolean room) {
     	
-    	// If they gave us a valid roomX and roomY in the world
-    	if (roomX >= 0 && roomX < World.MAXROOMS && roomY >= 0 && roomY < World.MAXROOMS) {
+    	// If it's supposed to go in a default room
+    	if (room) {
     	
-    		// If it's supposed to go in a default room
-	    	if (room) {
+    		// As long as that room is there
+	    	if (World.checkRoomExists(World.HOMELOCATION, World.HOMELOCATION)) {
 	
 				// Make the number of Items requested
 		    	for(int i = 0; i < numberOfItems; i++) {
@@ -294,22 +314,68 @@ public class Item {
 		    						 ToolKit.rand(0, 71)));
 		    	}
 	    	}
-	    	
-	    	// Otherwise not the default room
-	    	else {
-	    		
-	    		// Make the number of Items requested
-		    	for(int i = 0; i < numberOfItems; i++) {
-	    		
-	    			// And add them to the Item LinkedList
-		    		addItem(new Item(runningOID++, roomX, roomY, ToolKit.rand(0, 
-		    						 ItemDescription.NUMBER_WORN_ON_LOCATIONS), 
-		    						 ToolKit.rand(0, 71)));
-		    	}    		
-	    	}
+    	}
+    	
+    	// Otherwise not the default room, as long as they gave us one in the world
+    	else if (World.checkRoomExists(roomX, roomY)) {
+    		
+    		dynamicallyBuildItems(numberOfItems, roomX, roomY, null);
+    	}
+    }
+
+	/** 
+	 * A method to dynamically build items from values drawn from the given generator,
+	 * placing them within the given room. A generator seeded the same way always builds
+	 * the same Items.
+	 *
+	 * @param numberOfItems The given number of Items intended to be generated by the method.
+	 * @param roomX The X location of the Room where the Item will be placed.
+	 * @param roomY The Y location of the Room where the Item will be placed.
+	 * @param rng The generator to draw from, or null to draw from Math.random.
+	 * @see ToolKit#rand(Random, int, int)
+	 */
+    public static void dynamicallyBuildItems(int numberOfItems, int roomX, int roomY, Random rng) {
+    	
+    	// Make the number of Items requested
+    	for(int i = 0; i < numberOfItems; i++) {
+		
+			// And add them to the Item LinkedList
+    		addItem(new Item(runningOID++, roomX, roomY, ToolKit.rand(rng, 0, 
+    						 ItemDescription.NUMBER_WORN_ON_LOCATIONS), 
+    						 ToolKit.rand(rng, 0, 71), rng));
     	}
     }
 
+	/**
+	 * A method to write this Item, and its ItemDescription, in the binary save format.
+	 *
+	 * @param out The stream to write to.
+	 * @throws IOException Thrown if the stream fails while writing.
+	 */
+	public void save(DataOutputStream out) throws IOException {
+
+		out.writeInt(itemX);
+		out.writeInt(itemY);
+		out.writeInt(oid);
+		iDesc.save(out);
+	}
+
+	/**
+	 * A method to read an Item saved in the binary format.
+	 *
+	 * @param in The stream to read from.
+	 * @return Returns the loaded Item.
+	 * @throws IOException Thrown if the stream fails while reading.
+	 */
+	public static Item load(DataInputStream in) throws IOException {
+
+		int x	= in.readInt();
+		int y	= in.readInt();
+		int id	= in.readInt();
+
+		return new Item(x, y, id, ItemDescription.load(in));
+	}
+
 	/**
 	 * A method to return a String expressing the values of the Item's ItemDescription.
 	 *
@@ -1,3 +1,8 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
 /**
  *<pre>
  * Purpose
@@ -277,8 +282,21 @@ public class ItemDescription {
 	 */
     public ItemDescription(int locationWorn, int iLevel) {
 
+		this(locationWorn, iLevel, null);
+	}
+
+	/** 
+	 * Paramterized constructor; used when dynamically creating Items whose names must
+	 * come out the same every time, such as those dropped by lazily generated Rooms.
+	 *
+	 * @param locationWorn A reference to where the item is worn on the body.
+	 * @param iLevel The Item's Level, as an indicator of the power of the Item.
+	 * @param rng The generator the Item's name is chosen with, or null for Math.random.
+	 */
+    public ItemDescription(int locationWorn, int iLevel, Random rng) {
+
 		// Get a random metal
-		int randomSelection = ToolKit.rand(0, itemMetalTypes.length);
+		int randomSelection = ToolKit.rand(rng, 0, itemMetalTypes.length);
 
 		// Make sure the iLevel is appropriate
 		this.iLevel = (iLevel > 70 ? 70 : iLevel);		
@@ -294,13 +312,13 @@ public class ItemDescription {
 		switch(locationWorn) {
 			
 			// Choose a random name from its given type
-			case 1: itemSimpleName = WORN_ON_HEAD[ToolKit.rand(0, WORN_ON_HEAD.length)]; break;
-			case 2: itemSimpleName = WORN_ON_BODY[ToolKit.rand(0, WORN_ON_BODY.length)]; break;
-			case 3: itemSimpleName = WORN_ON_ARMS[ToolKit.rand(0, WORN_ON_ARMS.length)]; break;
-			case 4: itemSimpleName = WORN_ON_HANDS[ToolKit.rand(0, WORN_ON_HANDS.length)]; break;
-			case 5: itemSimpleName = WORN_ON_WAIST[ToolKit.rand(0, WORN_ON_WAIST.length)]; break;
-			case 6: itemSimpleName = WORN_ON_LEGS[ToolKit.rand(0, WORN_ON_LEGS.length)]; break;
-			case 7: itemSimpleName = WORN_ON_FEET[ToolKit.rand(0, WORN_ON_FEET.length)]; break;
+			case 1: itemSimpleName = WORN_ON_HEAD[ToolKit.rand(rng, 0, WORN_ON_HEAD.length)]; break;
+			case 2: itemSimpleName = WORN_ON_BODY[ToolKit.rand(rng, 0, WORN_ON_BODY.length)]; break;
+			case 3: itemSimpleName = WORN_ON_ARMS[ToolKit.rand(rng, 0, WORN_ON_ARMS.length)]; break;
+			case 4: itemSimpleName = WORN_ON_HANDS[ToolKit.rand(rng, 0, WORN_ON_HANDS.length)]; break;
+			case 5: itemSimpleName = WORN_ON_WAIST[ToolKit.rand(rng, 0, WORN_ON_WAIST.length)]; break;
+			case 6: itemSimpleName = WORN_ON_LEGS[ToolKit.rand(rng, 0, WORN_ON_LEGS.length)]; break;
+			case 7: itemSimpleName = WORN_ON_FEET[ToolKit.rand(rng, 0, WORN_ON_FEET.length)]; break;
 			// Used for held items where locationWorn == 0
 			default: itemSimpleName = "Object"; break;
 		}
@@ -376,6 +394,41 @@ public class ItemDescription {
     	this.iLevel = iLevel;
     }
 
+	/**
+	 * A method to write this ItemDescription in the binary save format.
+	 *
+	 * @param out The stream to write to.
+	 * @throws IOException Thrown if the stream fails while writing.
+	 */
+	public void save(DataOutputStream out) throws IOException {
+
+		out.writeUTF(prefix);
+		out.writeUTF(suffix);
+		out.writeUTF(itemName);
+		out.writeUTF(itemSimpleName);
+		out.writeUTF(itemMetalTypeName);
+		out.writeInt(itemMetalTypeValue);
+		out.writeDouble(modifierName);
+		out.writeDouble(modifierValue);
+		out.writeInt(iLevel);
+		out.writeInt(locationWorn);
+	}
+
+	/**
+	 * A method to read an ItemDescription saved in the binary format.
+	 *
+	 * @param in The stream to read from.
+	 * @return Returns the loaded ItemDescription.
+	 * @throws IOException Thrown if the stream fails while reading.
+	 */
+	public static ItemDescription load(DataInputStream in) throws IOException {
+
+		// Read in the same order they were saved
+		return new ItemDescription(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+								   in.readUTF(), in.readInt(), in.readDouble(), in.readDouble(),
+								   in.readInt(), in.readInt());
+	}
+
 	/** 
 	 * A method to return the Item's fields, identifying the item.
 	 *
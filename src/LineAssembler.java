@@ -0,0 +1,145 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The LineAssembler class turns the raw bytes read from a non-blocking channel into complete
+ *		lines of input. Bytes arrive in whatever chunks the network delivers them, so a line may
+ *		be split across several reads or several lines may arrive in a single read.
+ *
+ *	Structure / Process
+ *
+ *		The SelectorConnectionManager feeds each read into the ChannelConnection's LineAssembler,
+ *		and a SocketConnection feeds its own with whatever bytes its Socket has available.
+ *		Each byte first passes through the connection's TelnetDecoder, which strips out telnet
+ *		commands and answers them. What's left is built up in a fixed buffer until its newline
+ *		arrives, at which point the line is placed on the LineQueue of complete lines to be handed
+ *		to the game. Only printable characters are kept, backspace and delete take back the last
+ *		one, and anything past MAX_LINE_LENGTH is dropped, so a client can't grow a line without
+ *		bound. Nothing is allocated for a byte read; the only new object is each line's String.
+ *
+ *		Only the thread reading the connection may call feed, and only the game thread may call
+ *		nextLine, takeReply and takeCompressionRequest; none of them take a lock.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see ChannelConnection
+ * @see SelectorConnectionManager
+ * @see LineQueue
+ * @see TelnetDecoder
+ */
+public class LineAssembler {
+
+	/** The most characters kept of a single line; the rest are dropped. */
+	public static final int MAX_LINE_LENGTH	= 512;
+
+	/** Strips and answers the telnet commands mixed in with the input. */
+	private TelnetDecoder telnet;
+	/** The characters of the line currently being assembled. */
+	private byte[] partialLine;
+	/** The number of characters in partialLine. */
+	private int partialLength;
+	/** The complete lines waiting to be handed to the game. */
+	private LineQueue completeLines;
+
+	/** A default constructor which starts with no partial line and no complete lines. */
+	public LineAssembler() {
+
+		telnet			= new TelnetDecoder();
+		partialLine		= new byte[MAX_LINE_LENGTH];
+		partialLength	= 0;
+		completeLines	= new LineQueue();
+	}
+
+	/**
+	 * A method to consume every byte remaining in the given buffer.
+	 *
+	 * @param bytes A buffer which has been flipped for reading.
+	 * @return Returns true if at least one line was completed or a telnet command needs
+	 *			seeing to, either of which the game should be told about.
+	 */
+	public boolean feed(ByteBuffer bytes) {
+
+		// For each byte read
+		int c = 0;
+		// Whether we finished any lines
+		boolean completedLine = false;
+
+		// Go through everything the network gave us
+		while(bytes.hasRemaining()) {
+
+			c = telnet.decode(bytes.get() & 0xFF);
+
+			// If this constitutes one command, the line is complete
+			if (c == '\n') {
+
+				// A client flooding us loses the lines which don't fit
+				completeLines.offer(new String(partialLine, 0, partialLength,
+											   StandardCharsets.US_ASCII));
+				partialLength	= 0;
+				completedLine	= true;
+			}
+
+			// Take back the last character
+			else if (c == 8 || c == 127) {
+
+				if (partialLength > 0) {
+
+					partialLength--;
+				}
+			}
+
+			// Otherwise, so long as it's a valid character and there's room, we build the line
+			else if (c >= 32 && c <= 126 && partialLength < partialLine.length) {
+
+				partialLine[partialLength++] = (byte)c;
+			}
+		}
+
+		return completedLine || telnet.hasPending();
+	}
+
+	/**
+	 * A method, for the game thread, to take the next answer to the client's telnet
+	 * negotiations.
+	 *
+	 * @return Returns the bytes to send, or null if there are none.
+	 */
+	public byte[] takeReply() {
+
+		return telnet.takeReply();
+	}
+
+	/**
+	 * A method, for the game thread, to find out whether the client has asked for compressed
+	 * output since it last checked.
+	 *
+	 * @return Returns true once for each time the client asked.
+	 */
+	public boolean takeCompressionRequest() {
+
+		return telnet.takeCompressionRequest();
+	}
+
+	/**
+	 * A method to pull the next complete line.
+	 *
+	 * @return Returns the next complete line or null if none are waiting.
+	 */
+	public String nextLine() {
+
+		return completeLines.poll();
+	}
+
+	/**
+	 * A method to describe this assembler.
+	 *
+	 * @return Returns a String with the length of the partial line and the complete lines.
+	 */
+	public String toString() {
+
+		return "Class: LineAssembler\nPartial: " + partialLength + "\n" + completeLines;
+	}
+}
@@ -0,0 +1,140 @@
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The LineQueue class hands complete command lines from the one thread reading a client's
+ *		connection to the game loop, without either of them ever taking a lock. It holds a fixed
+ *		number of lines, so a client flooding the game with input can't use up its memory.
+ *
+ *	Structure / Process
+ *
+ *		The lines sit in a ring buffer whose size is a power of two. Exactly one thread may call
+ *		offer and exactly one thread may call poll; they may be the same thread. The producer
+ *		only ever writes tail and the consumer only ever writes head, and both are volatile, so
+ *		a line stored before tail moves past it is always visible to the consumer which sees
+ *		the new tail. A line offered while the queue is full is dropped and counted.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see LineAssembler
+ */
+public class LineQueue {
+
+	/** The number of lines a queue holds unless told otherwise; must be a power of two. */
+	public static final int DEFAULT_CAPACITY	= 64;
+
+	/** The ring buffer of lines. */
+	private final String[] lines;
+	/** The capacity less one, for wrapping an index into the ring buffer. */
+	private final int mask;
+	/** The count of lines taken so far; only the consumer writes it. */
+	private volatile long head;
+	/** The count of lines added so far; only the producer writes it. */
+	private volatile long tail;
+	/** The count of lines dropped because the queue was full; only the producer writes it. */
+	private volatile long dropped;
+
+	/** A default constructor for a queue of DEFAULT_CAPACITY lines. */
+	public LineQueue() {
+
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * A parameterized constructor for a queue of the given number of lines.
+	 *
+	 * @param capacity The number of lines the queue holds, rounded up to a power of two.
+	 */
+	public LineQueue(int capacity) {
+
+		// Round up so an index can be wrapped with a mask
+		capacity	= Integer.highestOneBit(Math.max(1, capacity - 1) << 1);
+
+		lines		= new String[capacity];
+		mask		= capacity - 1;
+		head		= 0;
+		tail		= 0;
+		dropped		= 0;
+	}
+
+	/**
+	 * A method, for the producer only, to add a line to the queue.
+	 *
+	 * @param line The complete line to add.
+	 * @return Returns true if the line was added and false if the queue was full.
+	 */
+	public boolean offer(String line) {
+
+		long currentTail = tail;
+
+		// Full; the client is sending faster than the game can read
+		if (currentTail - head == lines.length) {
+
+			dropped++;
+			return false;
+		}
+
+		lines[(int)currentTail & mask] = line;
+
+		// Publishing the new tail makes the line visible to the consumer
+		tail = currentTail + 1;
+
+		return true;
+	}
+
+	/**
+	 * A method, for the consumer only, to take the oldest line from the queue.
+	 *
+	 * @return Returns the oldest line, or null if the queue is empty.
+	 */
+	public String poll() {
+
+		long currentHead	= head;
+		String line			= null;
+
+		// Empty
+		if (currentHead == tail) {
+
+			return null;
+		}
+
+		line = lines[(int)currentHead & mask];
+		lines[(int)currentHead & mask] = null;
+
+		// Publishing the new head gives the slot back to the producer
+		head = currentHead + 1;
+
+		return line;
+	}
+
+	/**
+	 * A method to test whether the queue is empty.
+	 *
+	 * @return Returns true if no lines are waiting.
+	 */
+	public boolean isEmpty() {
+
+		return head == tail;
+	}
+
+	/**
+	 * A method to get the number of lines dropped because the queue was full.
+	 *
+	 * @return Returns the number of dropped lines.
+	 */
+	public long getDropped() {
+
+		return dropped;
+	}
+
+	/**
+	 * A method to describe this queue.
+	 *
+	 * @return Returns a String with the queue's size and capacity.
+	 */
+	public String toString() {
+
+		return "Class: LineQueue\nLines: " + (tail - head) + "/" + lines.length +
+			   "\nDropped: " + dropped;
+	}
+}
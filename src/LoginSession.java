@@ -0,0 +1,461 @@
+import java.io.IOException;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The LoginSession class walks a new connection through the name and password dialogue
+ *		without holding a thread while it waits for the client to type. A connection which is
+ *		still logging in costs only its LoginSession, and one which stops answering is closed.
+ *
+ *	Structure / Process
+ *
+ *		The network threads hand every accepted connection, in any networking mode, to
+ *		addConnection, which only queues it. Each pass of the game loop calls advanceAll, which
+ *		first creates a LoginSession for every connection queued since the last pass, so a
+ *		session and the Player it makes are only ever built on the game thread, and then gives
+ *		every session the next complete line its client has sent, if any. Each line
+ *		moves the session from one state to the next until the Player is either added to the game
+ *		or turned away. A session which waits too long at one prompt, or takes too long over the
+ *		whole dialogue, is closed; the limits come from Config.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see ManageSocketConnections
+ * @see SelectorConnectionManager
+ * @see Config#getLoginIdleSeconds()
+ */
+public class LoginSession {
+
+	/** A constant int for the state waiting on the Player's name. */
+	private static final int STATE_NAME				= 0;
+	/** A constant int for the state waiting on a new Player to confirm their name. */
+	private static final int STATE_CONFIRM_NAME		= 1;
+	/** A constant int for the state waiting on an existing Player's password. */
+	private static final int STATE_PASSWORD			= 2;
+	/** A constant int for the state waiting on a new Player's password. */
+	private static final int STATE_NEW_PASSWORD		= 3;
+	/** A constant int for the state waiting on a new Player to confirm their password. */
+	private static final int STATE_CONFIRM_PASSWORD	= 4;
+	/** A constant int for a session which is finished, successfully or not. */
+	private static final int STATE_DONE				= 5;
+
+	/** The list of every session still logging in; Vector for synchronization. */
+	private static Vector<LoginSession> sessionList = new Vector<LoginSession>();
+	/** The connections accepted but not yet given a session, added by the network threads. */
+	private static ConcurrentLinkedQueue<Connection> newConnections =
+							new ConcurrentLinkedQueue<Connection>();
+
+	/** The Connection the dialogue is held over. */
+	private Connection connection;
+	/** The Player being logged in or created. */
+	private Player newPlayer;
+	/** The current state of the dialogue. */
+	private int state;
+	/** The name the client has asked for, held while they confirm it. */
+	private String tmpName;
+	/** The first copy of a new Player's password, held while they confirm it. */
+	private String tmpPassword;
+	/** The time, in milliseconds, the connection was accepted. */
+	private long startedAt;
+	/** The time, in milliseconds, the client last sent a line. */
+	private long lastInputAt;
+
+	/**
+	 * A parameterized constructor which greets the given Connection and asks for a name.
+	 *
+	 * @param connection The Connection the dialogue is held over.
+	 */
+	public LoginSession(Connection connection) {
+
+		this.connection	= connection;
+		newPlayer		= new Player();
+		tmpName			= "";
+		tmpPassword		= "";
+		startedAt		= System.currentTimeMillis();
+		lastInputAt		= startedAt;
+
+		// Offer compression; clients which understand it will answer while we talk
+		if (Config.getCompression()) {
+
+			send(Mccp.getOffer());
+		}
+
+		// Send the new connection JavaWorld's Message of the Day!
+		send(Config.getMOTDTemplate().getBytes());
+
+		// And begin with their name
+		askForName();
+	}
+
+	/**
+	 * A method, called from the network threads, to queue a newly accepted connection for the
+	 * game loop to greet, and wake the game loop to do so.
+	 *
+	 * @param connection The new Connection.
+	 */
+	public static void addConnection(Connection connection) {
+
+		newConnections.add(connection);
+		GameScheduler.signalInput();
+	}
+
+	/**
+	 * A method, called from the game loop, to advance every session with waiting input.
+	 *
+	 * @return Returns true if any session was given a line, in which case more may be waiting.
+	 */
+	public static boolean advanceAll() {
+
+		String oneLine = null;
+		Connection oneConnection = null;
+		boolean advancedOne = false;
+		long now = System.currentTimeMillis();
+
+		// Greet everybody who's connected since the last pass; a new Player may build rooms
+		while((oneConnection = newConnections.poll()) != null) {
+
+			sessionList.add(new LoginSession(oneConnection));
+		}
+
+		// Work on a copy; finished sessions are removed as we go
+		for(LoginSession oneSession: new Vector<LoginSession>(sessionList)) {
+
+			// Try to pull a line from the session
+			try {
+
+				// If the client went away mid-dialogue, there's nothing left to do
+				if (oneSession.connection.isClosed()) {
+
+					oneSession.state = STATE_DONE;
+				}
+
+				else if ((oneLine = oneSession.connection.readLine()) != null) {
+
+					oneSession.lastInputAt = now;
+					oneSession.advance(oneLine);
+					advancedOne = true;
+				}
+
+				// Nobody gets to hold a session open forever
+				else if (oneSession.timedOut(now)) {
+
+					System.out.println("Login timed out. Closing connection.");
+					oneSession.send("\n\rLogin timed out.\n\r");
+					oneSession.state = STATE_DONE;
+					oneSession.connection.close();
+				}
+			}
+
+			// Catch any Exceptions
+			catch (IOException e) {
+
+				System.out.println("IOException in LoginSession: " + e.getMessage());
+				oneSession.state = STATE_DONE;
+			}
+
+			// Finished sessions leave the list
+			if (oneSession.state == STATE_DONE) {
+
+				sessionList.remove(oneSession);
+			}
+		}
+
+		return advancedOne;
+	}
+
+	/**
+	 * A method to test whether the session has waited too long at its prompt or taken too
+	 * long over the whole dialogue.
+	 *
+	 * @param now The current time in milliseconds.
+	 * @return Returns true if either login timeout has passed.
+	 */
+	private boolean timedOut(long now) {
+
+		return now - lastInputAt > Config.getLoginIdleSeconds() * 1000L ||
+			   now - startedAt > Config.getLoginTimeoutSeconds() * 1000L;
+	}
+
+	/**
+	 * A method to move the dialogue along by one line of input.
+	 *
+	 * @param oneLine The line of input the client sent.
+	 */
+	private void advance(String oneLine) {
+
+		switch(state) {
+
+			case STATE_NAME:				receiveName(oneLine); break;
+			case STATE_CONFIRM_NAME:		receiveNameConfirmation(oneLine); break;
+			case STATE_PASSWORD:			receivePassword(oneLine); break;
+			case STATE_NEW_PASSWORD:		receiveNewPassword(oneLine); break;
+			case STATE_CONFIRM_PASSWORD:	receivePasswordConfirmation(oneLine); break;
+			default: break;
+		}
+	}
+
+	/** A method to ask the client for their name. */
+	private void askForName() {
+
+		send("Please input your name: ");
+		state = STATE_NAME;
+	}
+
+	/**
+	 * A method to handle the name the client sent.
+	 *
+	 * @param oneLine The line containing the client's name.
+	 */
+	private void receiveName(String oneLine) {
+
+		// We only take the first name
+		tmpName = TextManipulator.oneArgument(oneLine);
+
+		// Nothing useful was typed, so we ask again
+		if (tmpName.length() == 0) {
+
+			askForName();
+			return;
+		}
+
+		// If the player exists, we're good to go!
+		if (Player.checkPlayerExists(tmpName.toLowerCase())) {
+
+			setName();
+			send("Please input your Password: ");
+			state = STATE_PASSWORD;
+			return;
+		}
+
+		// If not, we begin the new player creation process
+		send("\n\rIs " + tmpName + " okay as a name (y/n)? ");
+		state = STATE_CONFIRM_NAME;
+	}
+
+	/**
+	 * A method to handle a new Player confirming their name.
+	 *
+	 * @param oneLine The line containing the client's answer.
+	 */
+	private void receiveNameConfirmation(String oneLine) {
+
+		oneLine = oneLine.trim().toLowerCase();
+
+		// If they want the name, that's great
+		if (oneLine.length() > 0 && oneLine.charAt(0) == 'y') {
+
+			setName();
+			send("Player name set to " + newPlayer.getName() + ".\n\r");
+			send("Please input your new Password: ");
+			state = STATE_NEW_PASSWORD;
+		}
+
+		// But if they don't, the process starts again
+		else {
+
+			askForName();
+		}
+	}
+
+	/**
+	 * A method to handle an existing Player's password and, if it's correct, bring them
+	 * into the game.
+	 *
+	 * @param oneLine The line containing the client's password.
+	 */
+	private void receivePassword(String oneLine) {
+
+		newPlayer.setPassword(oneLine);
+		state = STATE_DONE;
+
+		// If the password is good, we load them up!
+		if (Player.checkPlayerLogin(newPlayer)) {
+
+			// And make sure to clear the password
+			newPlayer.clearPassword();
+
+			// Load the player and associate them to their connection
+			newPlayer = Player.loadPlayer(newPlayer.getName().toLowerCase());
+
+			// Their save is damaged; turn this login away and leave everybody else playing
+			if (newPlayer == null) {
+
+				send("Your player file couldn't be loaded. Please contact an administrator.\n\r");
+
+				// Try to close it up
+				try {
+
+					connection.close();
+				}
+
+				// Catch any Exceptions
+				catch (IOException e) {
+
+					System.out.println("IOException in LoginSession: " + e.getMessage());
+				}
+
+				return;
+			}
+
+			newPlayer.setConnection(connection);
+
+			// If we just made a new seed, players haven't discovered any rooms yet!
+			if (Config.getNewSeedFile()) {
+
+				newPlayer.clearDiscoveredRooms();
+			}
+
+			enterGame();
+		}
+
+		// If their password was wrong
+		else {
+
+			// Notify them as such
+			System.out.println("Incorrect password. Closing connection.");
+
+			// Close it up
+			try {
+
+				connection.close();
+			}
+
+			// Catch any Exceptions
+			catch (IOException e) {
+
+				System.out.println("IOException in LoginSession: " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * A method to handle the first copy of a new Player's password.
+	 *
+	 * @param oneLine The line containing the client's password.
+	 */
+	private void receiveNewPassword(String oneLine) {
+
+		tmpPassword = oneLine;
+		send("Please confirm your new Password: ");
+		state = STATE_CONFIRM_PASSWORD;
+	}
+
+	/**
+	 * A method to handle the second copy of a new Player's password and, if the copies
+	 * match, create the Player and bring them into the game.
+	 *
+	 * @param oneLine The line containing the client's password.
+	 */
+	private void receivePasswordConfirmation(String oneLine) {
+
+		// They need to try again!
+		if (!tmpPassword.equals(oneLine)) {
+
+			send("Player's passwords did not match. Please try again.\n\r");
+			send("Please input your new Password: ");
+			state = STATE_NEW_PASSWORD;
+			return;
+		}
+
+		// Set the password, good to go
+		newPlayer.setPassword(tmpPassword);
+		send("Player's password was set.\n\r");
+		tmpPassword = "";
+		state = STATE_DONE;
+
+		// Create a new file with their password
+		Player.createPWordFile(newPlayer);
+		// Save their new profile!
+		Player.savePlayer(newPlayer);
+		// Clear their password
+		newPlayer.clearPassword();
+		// Initialize the connection
+		newPlayer.setConnection(connection);
+		// Place them into the HOMELOCATION
+		newPlayer.setCurrentRoom(World.getRoom(World.HOMELOCATION, World.HOMELOCATION));
+		// Make sure they're in JavaWorld!
+		newPlayer.setCurrentWorld(newPlayer.getRoom().getWorld());
+		// And they just discovered the HOMELOCATION!
+		newPlayer.discoverRoom();
+
+		enterGame();
+	}
+
+	/** A method to add the logged in Player to the game and show them their surroundings. */
+	private void enterGame() {
+
+		// Add the player to the playerList
+		Player.addPlayer(newPlayer);
+
+		// Show the new player their surroundings
+		Interpreter.checkCommand(newPlayer, "look");
+
+		// Notify the game admin that somebody new is in the game
+		System.out.println("Added one Player: " + newPlayer.getName());
+	}
+
+	/** A method to capitalize the name the client asked for and set it on the Player. */
+	private void setName() {
+
+		tmpName = tmpName.toUpperCase().charAt(0) + tmpName.substring(1);
+		newPlayer.setName(tmpName);
+
+		// Notify the game admin that someone's coming on
+		System.out.println(tmpName + " attempting to login.");
+	}
+
+	/**
+	 * A method to send dialogue text to the client.
+	 *
+	 * @param text The text to send.
+	 */
+	private void send(String text) {
+
+		// Try to send the text
+		try {
+
+			connection.write(text);
+		}
+
+		// Catch any Exceptions
+		catch (IOException e) {
+
+			System.out.println("IOException in LoginSession: " + e.getMessage());
+			state = STATE_DONE;
+		}
+	}
+
+	/**
+	 * A method to send already encoded dialogue text to the client.
+	 *
+	 * @param bytes The encoded text to send.
+	 */
+	private void send(byte[] bytes) {
+
+		// Try to send the text
+		try {
+
+			connection.write(bytes, 0, bytes.length);
+		}
+
+		// Catch any Exceptions
+		catch (IOException e) {
+
+			System.out.println("IOException in LoginSession: " + e.getMessage());
+			state = STATE_DONE;
+		}
+	}
+
+	/**
+	 * A method to put the class name.
+	 *
+	 * @return Returns a String indicating the class's name.
+	 */
+	public String toString() {
+
+		return "Class: LoginSession";
+	}
+}
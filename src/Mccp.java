@@ -0,0 +1,193 @@
+import java.io.ByteArrayOutputStream;
+import java.util.zip.Deflater;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The Mccp class compresses one client's output with the MUD Client Compression Protocol,
+ *		version 2. Nearly everything the game sends is the same color codes, borders and art over
+ *		and over, so a client which understands MCCP costs a fraction of the bandwidth.
+ *
+ *	Structure / Process
+ *
+ *		Every connection is offered compression with IAC WILL COMPRESS2 as soon as it's accepted.
+ *		A client which answers IAC DO COMPRESS2 is sent IAC SB COMPRESS2 IAC SE, and everything
+ *		after that is one zlib stream, kept going for as long as the connection lasts by a single
+ *		Deflater. Each write is flushed with SYNC_FLUSH so the client can show it right away.
+ *		Clients which refuse, or never answer, are sent plain text as before.
+ *
+ *		Each Connection's OutboundQueue owns an Mccp and passes every write through compress,
+ *		which hands the bytes back untouched until start has been called. An Mccp isn't safe to
+ *		use from two threads at once; the OutboundQueue only uses it with its lock held.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see OutboundQueue
+ * @see TelnetDecoder
+ */
+public class Mccp {
+
+	/** The telnet Interpret As Command byte. */
+	public static final int IAC			= 255;
+	/** The telnet command offering to enable an option. */
+	public static final int WILL		= 251;
+	/** The telnet command refusing to enable an option. */
+	public static final int WONT		= 252;
+	/** The telnet command asking for an option to be enabled. */
+	public static final int DO			= 253;
+	/** The telnet command asking for an option to be disabled. */
+	public static final int DONT		= 254;
+	/** The telnet command beginning a subnegotiation. */
+	public static final int SB			= 250;
+	/** The telnet command ending a subnegotiation. */
+	public static final int SE			= 240;
+	/** The telnet option number of MCCP version 2. */
+	public static final int COMPRESS2	= 86;
+
+	/** The bytes offering compression to a new connection. */
+	private static final byte[] OFFER	= {(byte)IAC, (byte)WILL, (byte)COMPRESS2};
+	/** The bytes telling the client everything after them is compressed. */
+	private static final byte[] START	= {(byte)IAC, (byte)SB, (byte)COMPRESS2, (byte)IAC, (byte)SE};
+
+	/** The size of the buffer compressed output is made into. */
+	private static final int BUFFER_SIZE	= 4096;
+
+	/** The compressor, or null until the client has asked for compression. */
+	private Deflater deflater;
+	/** The buffer compressed output is made into. */
+	private byte[] buffer;
+
+	/** A default constructor for a connection which isn't compressed yet. */
+	public Mccp() {
+
+		deflater	= null;
+		buffer		= null;
+	}
+
+	/**
+	 * A method to get the bytes which offer compression to a new connection.
+	 *
+	 * @return Returns a fresh copy of IAC WILL COMPRESS2.
+	 */
+	public static byte[] getOffer() {
+
+		return OFFER.clone();
+	}
+
+	/**
+	 * A method to begin compressing. The returned bytes must be sent before anything which
+	 * passes through compress afterwards.
+	 *
+	 * @return Returns a fresh copy of IAC SB COMPRESS2 IAC SE, or null if compression had
+	 *			already begun.
+	 */
+	public byte[] start() {
+
+		// Only once
+		if (deflater != null) {
+
+			return null;
+		}
+
+		deflater	= new Deflater(Deflater.BEST_COMPRESSION);
+		buffer		= new byte[BUFFER_SIZE];
+
+		return START.clone();
+	}
+
+	/**
+	 * A method to test whether the client's output is being compressed.
+	 *
+	 * @return Returns true if start has been called and false if not.
+	 */
+	public boolean isActive() {
+
+		return deflater != null;
+	}
+
+	/**
+	 * A method to compress the given bytes onto the end of the stream, if compression has
+	 * begun.
+	 *
+	 * @param bytes The bytes to be sent.
+	 * @return Returns the bytes to actually send; the same array if compression hasn't begun.
+	 */
+	public byte[] compress(byte[] bytes) {
+
+		// Plain text until the client asks otherwise
+		if (deflater == null) {
+
+			return bytes;
+		}
+
+		deflater.setInput(bytes);
+
+		return drain(false);
+	}
+
+	/**
+	 * A method to end the compressed stream, so the client knows it's finished cleanly.
+	 *
+	 * @return Returns the last compressed bytes to send, or null if compression never began.
+	 */
+	public byte[] finish() {
+
+		byte[] lastBytes = null;
+
+		if (deflater == null) {
+
+			return null;
+		}
+
+		deflater.finish();
+		lastBytes = drain(true);
+
+		end();
+
+		return lastBytes;
+	}
+
+	/** A method to release the compressor without ending the stream, when nobody's listening. */
+	public void end() {
+
+		if (deflater != null) {
+
+			deflater.end();
+			deflater = null;
+		}
+	}
+
+	/**
+	 * A method to pull everything the Deflater has for us.
+	 *
+	 * @param finishing True if the stream is being finished, false for a SYNC_FLUSH.
+	 * @return Returns the compressed bytes.
+	 */
+	private byte[] drain(boolean finishing) {
+
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		int made = 0;
+
+		// A full buffer means there may be more to come, and a finished stream needs its end
+		do {
+
+			made = deflater.deflate(buffer, 0, buffer.length,
+									finishing ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH);
+			compressed.write(buffer, 0, made);
+
+		} while(made == buffer.length || (finishing && !deflater.finished()));
+
+		return compressed.toByteArray();
+	}
+
+	/**
+	 * A method to describe this compressor.
+	 *
+	 * @return Returns a String saying whether compression has begun.
+	 */
+	public String toString() {
+
+		return "Class: Mccp\nActive: " + isActive();
+	}
+}
@@ -0,0 +1,280 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The OutboundQueue class holds the output written to a Connection until the network can
+ *		take it, so the game thread never waits on a client's socket. It only holds so much; a
+ *		client which stops reading loses output rather than making the game hold on to it, and
+ *		the Player can be disconnected once they've been over the limit for too long.
+ *
+ *	Structure / Process
+ *
+ *		The game thread offers encoded output, which is queued unless the queue is already at
+ *		its high-water mark, in which case it's dropped. A single offer may take the queue past
+ *		the mark, so output larger than the limit still reaches a client which keeps up. Once the queue has drained, the
+ *		client is sent a single notice in place of everything dropped. The thread writing to the
+ *		network peeks at and removes buffers as it writes them, or takes them one at a time,
+ *		waiting for more if the queue is empty.
+ *
+ *		The time output was first dropped is remembered until the queue drains below half its
+ *		high-water mark, which is how the game tells a slow client from a stuck one. A queue is
+ *		finished when its Connection closes normally, so what's queued still goes out, or closed
+ *		when the Connection is aborted, throwing it away.
+ *
+ *		A queue compresses its output with MCCP once startCompression is called. Everything
+ *		which touches the compressor does so with the queue's lock held, whichever thread it's
+ *		called from.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Connection
+ * @see Config#getOutputLimit()
+ * @see Mccp
+ */
+public class OutboundQueue {
+
+	/** The notice sent in place of the output a client lost by not keeping up. */
+	private static final byte[] DROPPED_NOTICE	=
+							"\n\r[Some output was lost; your connection isn't keeping up.]\n\r".getBytes();
+
+	/** The buffers waiting to be written, oldest first. */
+	private ArrayDeque<ByteBuffer> buffers;
+	/** The number of bytes the queue may hold. */
+	private int highWater;
+	/** The number of bytes waiting to be written. */
+	private int queuedBytes;
+	/** The number of bytes dropped since the client was last told. */
+	private long droppedBytes;
+	/** The time, in milliseconds, output was first dropped, or 0 if the queue has caught up. */
+	private long overLimitSince;
+	/** Compresses the output once the client has asked for MCCP. */
+	private Mccp mccp;
+	/** A boolean indicating nothing more will be queued, but what's queued should be written. */
+	private boolean finishing;
+	/** A boolean indicating nothing more will be written. */
+	private boolean closed;
+
+	/**
+	 * A parameterized constructor for an empty queue.
+	 *
+	 * @param highWater The number of bytes the queue may hold.
+	 */
+	public OutboundQueue(int highWater) {
+
+		buffers			= new ArrayDeque<ByteBuffer>();
+		this.highWater	= highWater;
+		queuedBytes		= 0;
+		droppedBytes	= 0;
+		overLimitSince	= 0;
+		mccp			= new Mccp();
+		finishing		= false;
+		closed			= false;
+	}
+
+	/**
+	 * A method to compress everything queued from now on, for a client which has asked for
+	 * MCCP. Does nothing if compression has already begun.
+	 */
+	public synchronized void startCompression() {
+
+		byte[] start = mccp.start();
+
+		// The marker itself goes out uncompressed
+		if (start != null && !finishing && !closed) {
+
+			buffers.add(ByteBuffer.wrap(start));
+			queuedBytes += start.length;
+			notifyAll();
+		}
+	}
+
+	/**
+	 * A method to test whether the output is being compressed.
+	 *
+	 * @return Returns true if the client asked for MCCP and false if not.
+	 */
+	public synchronized boolean isCompressed() {
+
+		return mccp.isActive();
+	}
+
+	/**
+	 * A method to queue the given bytes unless the queue is already at its high-water mark;
+	 * the bytes may take it past the mark, so a flush larger than the limit isn't lost on a
+	 * client which has kept up. The array must not be changed afterwards. Should the client have asked for MCCP,
+	 * what's queued is the compressed bytes; the limit is checked before compressing, since
+	 * compressed output can't be dropped without breaking the rest of the stream.
+	 *
+	 * @param bytes The bytes to be written.
+	 * @return Returns true if the bytes were queued and false if they were dropped.
+	 */
+	public synchronized boolean offer(byte[] bytes) {
+
+		// Nobody will write it
+		if (finishing || closed) {
+
+			return false;
+		}
+
+		// Already at the limit; drop it and remember when this started
+		if (queuedBytes >= highWater) {
+
+			droppedBytes += bytes.length;
+
+			if (overLimitSince == 0) {
+
+				overLimitSince = System.currentTimeMillis();
+			}
+
+			return false;
+		}
+
+		bytes = mccp.compress(bytes);
+
+		buffers.add(ByteBuffer.wrap(bytes));
+		queuedBytes += bytes.length;
+
+		// Wake a writer waiting in take
+		notifyAll();
+
+		return true;
+	}
+
+	/**
+	 * A method to look at the oldest buffer without removing it, for writers which may only
+	 * manage part of a buffer at a time.
+	 *
+	 * @return Returns the oldest buffer, or null if the queue is empty.
+	 */
+	public synchronized ByteBuffer peek() {
+
+		return buffers.peek();
+	}
+
+	/** A method to remove the oldest buffer once it's been written in full. */
+	public synchronized void remove() {
+
+		ByteBuffer written = buffers.poll();
+
+		if (written != null) {
+
+			queuedBytes -= written.capacity();
+		}
+
+		caughtUp();
+	}
+
+	/**
+	 * A method to remove and return the oldest buffer, waiting for one if the queue is empty.
+	 *
+	 * @return Returns the oldest buffer, or null once the queue has been closed, or finished
+	 *			and emptied.
+	 * @throws InterruptedException Thrown if the waiting thread is interrupted.
+	 */
+	public synchronized ByteBuffer take() throws InterruptedException {
+
+		ByteBuffer oldest = null;
+
+		// Wait for something to write
+		while(buffers.isEmpty() && !closed && !finishing) {
+
+			wait();
+		}
+
+		if (closed || buffers.isEmpty()) {
+
+			return null;
+		}
+
+		oldest = buffers.poll();
+		queuedBytes -= oldest.capacity();
+
+		caughtUp();
+
+		return oldest;
+	}
+
+	/**
+	 * A method to note how far the queue has drained; it's only called with the lock held.
+	 * Once it's empty the client is told about anything they lost, and once it's below half
+	 * the high-water mark the client is no longer considered over the limit.
+	 */
+	private void caughtUp() {
+
+		byte[] notice = null;
+
+		if (queuedBytes <= highWater / 2) {
+
+			overLimitSince = 0;
+		}
+
+		// The notice doesn't count against the limit
+		if (buffers.isEmpty() && droppedBytes > 0 && !finishing && !closed) {
+
+			droppedBytes	= 0;
+			notice			= mccp.compress(DROPPED_NOTICE);
+
+			buffers.add(ByteBuffer.wrap(notice));
+			queuedBytes += notice.length;
+		}
+	}
+
+	/**
+	 * A method to test whether there is anything waiting to be written.
+	 *
+	 * @return Returns true if the queue is empty and false if not.
+	 */
+	public synchronized boolean isEmpty() {
+
+		return buffers.isEmpty();
+	}
+
+	/**
+	 * A method to get how long the client has been over the limit.
+	 *
+	 * @return Returns the number of milliseconds since output was first dropped, or 0 if the
+	 *			client has caught up.
+	 */
+	public synchronized long getOverLimitMillis() {
+
+		return overLimitSince == 0 ? 0 : System.currentTimeMillis() - overLimitSince;
+	}
+
+	/** A method to stop the queue taking output; whatever's already queued is still written. */
+	public synchronized void finish() {
+
+		// A compressed stream is ended properly
+		byte[] lastBytes = closed ? null : mccp.finish();
+
+		if (lastBytes != null && !finishing) {
+
+			buffers.add(ByteBuffer.wrap(lastBytes));
+			queuedBytes += lastBytes.length;
+		}
+
+		finishing = true;
+		notifyAll();
+	}
+
+	/** A method to close the queue, releasing any writer waiting in take. */
+	public synchronized void close() {
+
+		closed = true;
+		buffers.clear();
+		mccp.end();
+		notifyAll();
+	}
+
+	/**
+	 * A method to describe this queue.
+	 *
+	 * @return Returns a String with the number of bytes queued and the high-water mark.
+	 */
+	public String toString() {
+
+		return "Class: OutboundQueue\nQueued: " + queuedBytes + "/" + highWater;
+	}
+}
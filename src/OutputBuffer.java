@@ -0,0 +1,209 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The OutputBuffer class collects everything sent to a Player during a pass of the game loop
+ *		so that it can be written to their Connection all at once. Writing each message, let alone
+ *		each character, straight to the network costs a system call and often a packet apiece.
+ *
+ *	Structure / Process
+ *
+ *		Every Player owns an OutputBuffer. Player.message encodes its text into the buffer, and the
+ *		game loop flushes every Player's buffer once per pass. Should a buffer grow past
+ *		FLUSH_THRESHOLD in the middle of a pass, the Player flushes it early rather than letting it
+ *		keep growing. Text sent to many Players at once is encoded by encode just once, and the
+ *		same bytes are copied into each of their buffers.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Player
+ * @see Connection
+ */
+public class OutputBuffer {
+
+	/** The number of buffered bytes at which the buffer should be flushed without waiting. */
+	public static final int FLUSH_THRESHOLD	= 8192;
+	/** The starting capacity of a new buffer. */
+	private static final int INITIAL_SIZE	= 1024;
+
+	/** The encoded bytes waiting to be written. */
+	private byte[] buffer;
+	/** The number of bytes in the buffer which are waiting to be written. */
+	private int length;
+
+	/** A default constructor which starts with an empty buffer. */
+	public OutputBuffer() {
+
+		buffer = new byte[INITIAL_SIZE];
+		length = 0;
+	}
+
+	/**
+	 * A method to encode the given text onto the end of the buffer. Each character is sent as
+	 * a single byte.
+	 *
+	 * @param text The text to be buffered; it should already be colorized.
+	 */
+	public synchronized void append(String text) {
+
+		ensureCapacity(length + text.length());
+
+		for(int i = 0; i < text.length(); i++) {
+
+			buffer[length++] = (byte)text.charAt(i);
+		}
+	}
+
+	/**
+	 * A method to colorize the given text straight onto the end of the buffer in a single
+	 * pass, replacing color codes such as #C with their ANSI escape sequences.
+	 *
+	 * @param text The text to be colorized and buffered.
+	 * @see TextManipulator#addColor(String)
+	 */
+	public synchronized void appendColored(String text) {
+
+		// The escape sequence for a color code we've found
+		byte[] ansiCode = null;
+
+		ensureCapacity(length + text.length());
+
+		for(int i = 0; i < text.length(); i++) {
+
+			// A # symbol followed by a color code letter indicates color
+			if (text.charAt(i) == '#' && i + 1 < text.length() &&
+				(ansiCode = TextManipulator.getColorBytes(text.charAt(i + 1))) != null) {
+
+				// Room for the escape sequence and everything still to come
+				ensureCapacity(length + ansiCode.length + text.length() - i);
+
+				System.arraycopy(ansiCode, 0, buffer, length, ansiCode.length);
+				length += ansiCode.length;
+				i++;
+			}
+
+			// Anything else is sent as a single byte
+			else {
+
+				buffer[length++] = (byte)text.charAt(i);
+			}
+		}
+	}
+
+	/**
+	 * A method to colorize and encode text just once, so that the same bytes can be buffered
+	 * for every Player it's sent to.
+	 *
+	 * @param text The text to be colorized and encoded.
+	 * @return Returns the encoded text.
+	 */
+	public static byte[] encode(String text) {
+
+		OutputBuffer once = new OutputBuffer();
+
+		once.appendColored(text);
+
+		return Arrays.copyOf(once.buffer, once.length);
+	}
+
+	/**
+	 * A method to copy already encoded bytes onto the end of the buffer.
+	 *
+	 * @param bytes The bytes to be buffered.
+	 */
+	public synchronized void append(byte[] bytes) {
+
+		ensureCapacity(length + bytes.length);
+
+		System.arraycopy(bytes, 0, buffer, length, bytes.length);
+		length += bytes.length;
+	}
+
+	/**
+	 * A method to test whether the buffer has grown large enough that it should be flushed
+	 * without waiting for the end of the game loop.
+	 *
+	 * @return Returns true if the buffer holds at least FLUSH_THRESHOLD bytes.
+	 */
+	public synchronized boolean isFull() {
+
+		return length >= FLUSH_THRESHOLD;
+	}
+
+	/**
+	 * A method to test whether there is anything waiting to be written.
+	 *
+	 * @return Returns true if the buffer is empty and false if not.
+	 */
+	public synchronized boolean isEmpty() {
+
+		return length == 0;
+	}
+
+	/**
+	 * A method to write everything in the buffer to the given Connection in a single write,
+	 * then empty the buffer.
+	 *
+	 * @param connection The Connection to write the buffer to.
+	 * @throws IOException Thrown if the Connection fails while writing.
+	 */
+	public synchronized void flush(Connection connection) throws IOException {
+
+		// Nothing to do
+		if (length == 0) {
+
+			return;
+		}
+
+		// Empty the buffer first so a failed write isn't retried forever
+		int toWrite = length;
+		length = 0;
+
+		connection.write(buffer, 0, toWrite);
+	}
+
+	/** A method to throw away everything in the buffer. */
+	public synchronized void clear() {
+
+		length = 0;
+	}
+
+	/**
+	 * A method to grow the buffer so that it can hold at least the given number of bytes.
+	 *
+	 * @param capacity The number of bytes the buffer must be able to hold.
+	 */
+	private void ensureCapacity(int capacity) {
+
+		// Plenty of room already
+		if (capacity <= buffer.length) {
+
+			return;
+		}
+
+		// Double it until it's big enough
+		int newSize = buffer.length * 2;
+
+		while(newSize < capacity) {
+
+			newSize *= 2;
+		}
+
+		byte[] newBuffer = new byte[newSize];
+		System.arraycopy(buffer, 0, newBuffer, 0, length);
+		buffer = newBuffer;
+	}
+
+	/**
+	 * A method to describe this OutputBuffer.
+	 *
+	 * @return Returns a String with the number of bytes waiting to be written.
+	 */
+	public String toString() {
+
+		return "Class: OutputBuffer\nBuffered Bytes: " + length;
+	}
+}
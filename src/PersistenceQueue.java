@@ -0,0 +1,456 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The PersistenceQueue class writes Player saves to disk on a thread of its own, so a slow
+ *		disk never holds up the game loop. The game thread only takes a PlayerSnapshot and hands
+ *		it over, which costs no more than copying the Player.
+ *
+ *	Structure / Process
+ *
+ *		Snapshots wait in a map keyed by the Player's file name. Should a Player be saved again
+ *		before their last save was written, the newer snapshot takes the older one's place in the
+ *		queue, so each Player's files are written once no matter how often they save. A single
+ *		writer thread takes the oldest snapshots, up to Config.getSaveBatch() of them, and commits
+ *		them as a group, so no two writes to a Player's files ever overlap.
+ *
+ *		A group commit appends every record of the batch to the PlayerStore, one after another,
+ *		and then forces the store to disk once for the whole batch, rather than once per Player.
+ *		Between batches, the writer compacts the store if it needs it. A snapshot or Password
+ *		which can't be written goes back in the queue, unless a newer one has taken its place,
+ *		and the writer waits RETRY_MILLIS before its next batch, so a failing disk costs a save
+ *		nothing but time.
+ *
+ *		Passwords are queued the same way, as serialized bytes, and go into the next batch ahead
+ *		of the records, sharing its sync. Nothing but the writer ever forces the store to disk.
+ *
+ *		Anything which reads a Player's files first asks latest or latestPassword for what's still
+ *		queued or being written, and only reads the store if there's nothing, so a save that
+ *		hasn't reached the disk is served from memory and the game thread never waits on a
+ *		write. Names leave the queue only once the store's index knows them.
+ *
+ *		At shutdown, drain waits for the queue to empty, but only for as long as it's allowed to.
+ *		Once draining, the writer takes everything waiting as a single batch and leaves compaction
+ *		for the next start, so every Player saved at shutdown shares one commit.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see PlayerSnapshot
+ * @see PlayerStore
+ * @see Player#savePlayer(Player)
+ */
+public final class PersistenceQueue implements Runnable {
+
+	/** The longest, in milliseconds, shutdown waits for the saves still queued. */
+	public static final long SHUTDOWN_MILLIS = 10000;
+	/** How long, in milliseconds, the writer waits after a failed batch before trying again. */
+	private static final long RETRY_MILLIS	= 1000;
+
+	/** The snapshots waiting to be written, oldest first, keyed by the Player's file name. */
+	private static final LinkedHashMap<String, PlayerSnapshot> pending =
+							new LinkedHashMap<String, PlayerSnapshot>();
+
+	/** The snapshots being written right now, keyed by the Player's file name. */
+	private static final HashMap<String, PlayerSnapshot> writing =
+							new HashMap<String, PlayerSnapshot>();
+	/** The serialized Passwords waiting to be written, keyed by the Player's file name. */
+	private static final LinkedHashMap<String, byte[]> pendingPasswords =
+							new LinkedHashMap<String, byte[]>();
+	/** The serialized Passwords being written right now, keyed by the Player's file name. */
+	private static final HashMap<String, byte[]> writingPasswords = new HashMap<String, byte[]>();
+	/** The number of snapshots which replaced one already waiting. */
+	private static int coalesced	= 0;
+	/** The number of group commits made. */
+	private static int commits		= 0;
+	/** The number of snapshots written by those commits. */
+	private static int committed	= 0;
+	/** The number of snapshots which couldn't be written. */
+	private static int failed		= 0;
+	/** A boolean indicating the game is shutting down and waiting on the queue. */
+	private static boolean draining	= false;
+	/** The writer thread, once started. */
+	private static Thread writer	= null;
+
+	/** The private constructor ensures only this class makes the writer. */
+	private PersistenceQueue() {
+
+	}
+
+	/** A method to start the writer thread, if it hasn't been started already. */
+	public static synchronized void start() {
+
+		if (writer == null) {
+
+			writer = new Thread(new PersistenceQueue(), "PersistenceQueue");
+
+			// A save still waiting mustn't keep the game from exiting; drain handles that
+			writer.setDaemon(true);
+			writer.start();
+		}
+	}
+
+	/**
+	 * A method to queue a snapshot to be written, replacing any snapshot of the same Player
+	 * which hasn't been written yet.
+	 *
+	 * @param snapshot The snapshot to be written.
+	 */
+	public static void submit(PlayerSnapshot snapshot) {
+
+		start();
+
+		synchronized(pending) {
+
+			if (pending.put(snapshot.getFileName(), snapshot) != null) {
+
+				coalesced++;
+			}
+
+			pending.notifyAll();
+		}
+	}
+
+	/**
+	 * A method to queue a Player's serialized Password to be written, replacing any of theirs
+	 * which hasn't been written yet.
+	 *
+	 * @param fileName The lowercase name the Player is saved under.
+	 * @param password The serialized Password.
+	 */
+	public static void submitPassword(String fileName, byte[] password) {
+
+		start();
+
+		synchronized(pending) {
+
+			pendingPasswords.put(fileName, password);
+			pending.notifyAll();
+		}
+	}
+
+	/**
+	 * A method to get the newest snapshot of a Player which hasn't been written yet, so it can
+	 * be read without waiting on the disk.
+	 *
+	 * @param fileName The lowercase name the Player is saved under.
+	 * @return Returns the snapshot waiting or being written, or null if the store is up to date.
+	 */
+	public static PlayerSnapshot latest(String fileName) {
+
+		PlayerSnapshot snapshot = null;
+
+		synchronized(pending) {
+
+			// One waiting is newer than one being written
+			snapshot = pending.get(fileName);
+
+			return snapshot != null ? snapshot : writing.get(fileName);
+		}
+	}
+
+	/**
+	 * A method to get the newest serialized Password of a Player which hasn't been written yet.
+	 *
+	 * @param fileName The lowercase name the Player is saved under.
+	 * @return Returns the Password waiting or being written, or null if the store is up to date.
+	 */
+	public static byte[] latestPassword(String fileName) {
+
+		byte[] password = null;
+
+		synchronized(pending) {
+
+			password = pendingPasswords.get(fileName);
+
+			return password != null ? password : writingPasswords.get(fileName);
+		}
+	}
+
+	/**
+	 * A method to test whether anything of a Player's is still queued or being written.
+	 *
+	 * @param fileName The lowercase name the Player is saved under.
+	 * @return Returns true if the Player has a snapshot or Password not yet in the store.
+	 */
+	public static boolean isQueued(String fileName) {
+
+		synchronized(pending) {
+
+			return pending.containsKey(fileName) || writing.containsKey(fileName) ||
+				   pendingPasswords.containsKey(fileName) || writingPasswords.containsKey(fileName);
+		}
+	}
+
+	/**
+	 * A method to wait for every waiting snapshot to be written, giving up after the given
+	 * amount of time.
+	 *
+	 * @param timeoutMillis The longest, in milliseconds, to wait.
+	 * @return Returns true if everything was written and false if time ran out.
+	 */
+	public static boolean drain(long timeoutMillis) {
+
+		long deadline	= System.currentTimeMillis() + timeoutMillis;
+		long remaining	= timeoutMillis;
+
+		synchronized(pending) {
+
+			draining = true;
+
+			while(!isIdle() && remaining > 0) {
+
+				try {
+
+					pending.wait(remaining);
+				}
+
+				// Catch any Exceptions
+				catch (InterruptedException e) {
+
+					System.out.println("Exception in PersistenceQueue.drain: " + e.getMessage());
+					break;
+				}
+
+				remaining = deadline - System.currentTimeMillis();
+			}
+
+			// Let the admin know how it went
+			if (!isIdle()) {
+
+				System.out.println("Gave up waiting on " + (pending.size() + writing.size() +
+								   pendingPasswords.size() + writingPasswords.size()) +
+								   " player saves.");
+				return false;
+			}
+
+			System.out.println("All player saves done (" + coalesced + " saves coalesced, " +
+							   committed + " written in " + commits + " commits, " + failed +
+							   " failed).");
+			return true;
+		}
+	}
+
+	/**
+	 * A method to test whether nothing is waiting or being written. Only call this while
+	 * holding the lock on pending.
+	 *
+	 * @return Returns true if every snapshot and Password queued is in the store.
+	 */
+	private static boolean isIdle() {
+
+		return pending.isEmpty() && writing.isEmpty() && pendingPasswords.isEmpty() &&
+			   writingPasswords.isEmpty();
+	}
+
+	/**
+	 * A method to test whether a Player's newest snapshot is committed: nothing of theirs is
+	 * waiting or being written. A snapshot which failed is waiting again, so it doesn't count.
+	 *
+	 * @param fileName The lowercase name the Player is saved under.
+	 * @return Returns true if the Player's save is on the disk.
+	 */
+	public static boolean isSaved(String fileName) {
+
+		synchronized(pending) {
+
+			return !pending.containsKey(fileName) && !writing.containsKey(fileName);
+		}
+	}
+
+	/** The writer thread's loop; commit the oldest waiting snapshots, forever. */
+	public void run() {
+
+		ArrayList<PlayerSnapshot> batch = null;
+		HashMap<String, byte[]> passwords = null;
+		Iterator<PlayerSnapshot> oldest = null;
+		PlayerSnapshot snapshot = null;
+		int batchLimit = 0;
+		boolean compact = false;
+
+		while(true) {
+
+			batch = new ArrayList<PlayerSnapshot>();
+
+			synchronized(pending) {
+
+				// Wait for something to write
+				while(pending.isEmpty() && pendingPasswords.isEmpty()) {
+
+					try {
+
+						pending.wait();
+					}
+
+					// Catch any Exceptions
+					catch (InterruptedException e) {
+
+						System.out.println("Exception in PersistenceQueue: " + e.getMessage());
+					}
+				}
+
+				oldest		= pending.values().iterator();
+				// At shutdown, everybody goes in one commit
+				batchLimit	= draining ? pending.size() : Config.getSaveBatch();
+				compact		= !draining;
+
+				// Everything waiting, up to a batch
+				while(oldest.hasNext() && batch.size() < batchLimit) {
+
+					snapshot = oldest.next();
+					oldest.remove();
+
+					batch.add(snapshot);
+					writing.put(snapshot.getFileName(), snapshot);
+				}
+
+				// Passwords are few and small, so they all go in
+				passwords = new HashMap<String, byte[]>(pendingPasswords);
+				writingPasswords.putAll(pendingPasswords);
+				pendingPasswords.clear();
+			}
+
+			// A failing disk is given a moment rather than retried as fast as we can go
+			if (!write(passwords, batch)) {
+
+				try {
+
+					Thread.sleep(RETRY_MILLIS);
+				}
+
+				// Catch any Exceptions
+				catch (InterruptedException e) {
+
+					System.out.println("Exception in PersistenceQueue: " + e.getMessage());
+				}
+			}
+
+			// Superseded records are cleared out between batches, never holding up a save
+			if (compact) {
+
+				PlayerStore.compactIfNeeded();
+			}
+		}
+	}
+
+	/**
+	 * A method to commit a batch of Passwords and snapshots together, then let anybody waiting
+	 * on them know they're done. Anything which couldn't be written is queued again, unless
+	 * something newer of the same Player's is already waiting; the Player was marked saved
+	 * when the snapshot was taken, so nothing else would ever save it again. Only the writer
+	 * thread may call this.
+	 *
+	 * @param passwords The serialized Passwords to be written, keyed by file name.
+	 * @param batch The snapshots to be written.
+	 * @return Returns true if everything was written and false if anything was queued again.
+	 */
+	private static boolean write(HashMap<String, byte[]> passwords,
+								 ArrayList<PlayerSnapshot> batch) {
+
+		HashSet<String> batchFailed		= new HashSet<String>();
+		HashSet<String> passwordsFailed	= new HashSet<String>();
+
+		// A Player's Password goes ahead of their first record
+		for(String fileName: passwords.keySet()) {
+
+			// Try to append it
+			try {
+
+				PlayerStore.append(PlayerStore.PASSWORD, fileName, passwords.get(fileName));
+			}
+
+			// Catch any Exceptions
+			catch (IOException e) {
+
+				System.out.println("IOException saving the password of " + fileName + ": " +
+								   e.getMessage());
+				passwordsFailed.add(fileName);
+			}
+		}
+
+		// Every record goes on the end of the store
+		for(PlayerSnapshot snapshot: batch) {
+
+			// Try to append it
+			try {
+
+				PlayerStore.append(PlayerStore.RECORD, snapshot.getFileName(), snapshot.encode());
+			}
+
+			// Catch any Exceptions; one failed save mustn't stop the others
+			catch (IOException e) {
+
+				System.out.println("IOException saving " + snapshot.getFileName() + ": " +
+								   e.getMessage());
+				batchFailed.add(snapshot.getFileName());
+			}
+		}
+
+		// And one sync puts them all on the disk
+		try {
+
+			PlayerStore.sync();
+		}
+
+		// Catch any Exceptions; none of the batch can be counted on
+		catch (IOException e) {
+
+			System.out.println("IOException in PersistenceQueue: " + e.getMessage());
+
+			for(PlayerSnapshot snapshot: batch) {
+
+				batchFailed.add(snapshot.getFileName());
+			}
+
+			passwordsFailed.addAll(passwords.keySet());
+		}
+
+		synchronized(pending) {
+
+			for(PlayerSnapshot snapshot: batch) {
+
+				writing.remove(snapshot.getFileName());
+
+				// Try it again, unless a newer save has been queued meanwhile
+				if (batchFailed.contains(snapshot.getFileName())) {
+
+					pending.putIfAbsent(snapshot.getFileName(), snapshot);
+				}
+			}
+
+			// A Password queued again while this one was written stays pending
+			for(String fileName: passwords.keySet()) {
+
+				writingPasswords.remove(fileName);
+
+				if (passwordsFailed.contains(fileName)) {
+
+					pendingPasswords.putIfAbsent(fileName, passwords.get(fileName));
+				}
+			}
+
+			commits++;
+			committed += batch.size() - batchFailed.size();
+			failed += batchFailed.size();
+			pending.notifyAll();
+		}
+
+		return batchFailed.isEmpty() && passwordsFailed.isEmpty();
+	}
+
+	/**
+	 * A method to put the class name.
+	 *
+	 * @return Returns a String indicating the class's name.
+	 */
+	public String toString() {
+
+		return "Class: PersistenceQueue";
+	}
+}
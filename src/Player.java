@@ -2,6 +2,7 @@
 import java.io.*;
 import java.net.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.text.*;
 
 /**
@@ -17,11 +18,12 @@ import java.text.*;
  *
  *	Structure / Process
  *
- *		The Player is initialized from the accept() thread and becomes a part of the static
- *		Players ArrayList which is a collection of all active Players (and by extension, their
- *		sockets). Once the Player has been added to the Players ArrayList, the GameServer's
+ *		The Player is initialized by a LoginSession on the game thread and becomes a part of the
+ *		static Players ArrayList which is a collection of all active Players (and by extension,
+ *		their sockets). Once the Player has been added to the Players ArrayList, the GameServer's
  *		gameLoop will then begin interpreting input from the client each iteration until the
- *		client sends the "quit" or "exit" command.
+ *		client sends the "quit" or "exit" command. Input arrives through the LineQueue of the
+ *		Player's Connection, so the game loop never shares a lock with the network threads.
  *</pre>
  * @author Nicholas Warner
  * @version 5.1, May 2015
@@ -49,6 +51,11 @@ public class Player {
 	/** A constant int referencing the Player's Fortitude attribute. */
 	public static final int PLAYER_FORTITUDE	= 7;
 
+	/** The prompt, filled with the name color, name, health color, health and max health. */
+	private static final ColorTemplate PROMPT	= new ColorTemplate("\r\n<{0}{1}#n: {2}{3}#n/#C{4}#n> ");
+	/** The most threads hanging up on Players at once during a shutdown. */
+	private static final int SHUTDOWN_CLOSE_THREADS	= 8;
+
 	/** The list of all active players in the game; Vector for synchronization. */
 	private static Vector<Player> playerList = new Vector<Player>();
 
@@ -96,11 +103,15 @@ public class Player {
 	/** An int indicating the current mana of this Player. */
 	private int currentMana;
 	/**
-	 * A two-dimensional boolean which represents the (x, y) coordinate grid
-	 * of JavaWorld. When a player enters a given room (x, y), this sets the
-	 * discoveredRooms[x][y] to true.
+	 * The set of (x, y) rooms of JavaWorld this Player has discovered. When a
+	 * player enters a given room (x, y), it's added to the set.
+	 */
+	private DiscoveredRooms discoveredRooms;
+	/**
+	 * A boolean indicating something saved about this Player has changed since they were
+	 * last saved. Their Inventory and Equipment keep track of their own changes.
 	 */
-	private boolean[][] discoveredRooms;
+	private boolean dirty;
 	/** 
 	 * This holds the unix timestamp when a Player may act again. If the
 	 * current unix time is less than this timestamp, a Player's action
@@ -114,12 +125,10 @@ public class Player {
 	 */
 	private long chatWaiting;
 
-	/** A reference to the Player's Socket. */
-	Socket playerConnection;
-	/** A reference to the Player's output stream. */
-	OutputStream playerOut;
-	/** A reference to the Player's input stream. */
-	InputStream playerIn;
+	/** A reference to the Player's Connection, whichever networking mode is in use. */
+	Connection playerConnection;
+	/** The output waiting to be written to the Player's Connection. */
+	private OutputBuffer playerOutput;
 
 	/** 
 	 * A default constructor. All values are initialized to null, 0, empty String,
@@ -152,13 +161,13 @@ public class Player {
     	maxMana				= 100;
     	currentHealth		= 100;
     	currentMana			= 100;
-		discoveredRooms		= new boolean[World.MAXROOMS][World.MAXROOMS];
+		discoveredRooms		= new DiscoveredRooms();
+		dirty				= false;
 		waiting				= System.currentTimeMillis();
 		chatWaiting			= System.currentTimeMillis();     	
 
     	playerConnection	= null;
-		playerOut			= null;
-		playerIn			= null;
+		playerOutput		= new OutputBuffer();
 				
 		playerInventory		= new Inventory();
 		playerEquipment		= new Equipment();
@@ -168,12 +177,12 @@ public class Player {
 	 * A method to test whether a Player has an active Socket connection. This
 	 * method needs to be reworked.
 	 *
-	 * @return Returns true if the Player's playerOut is null and false
+	 * @return Returns true if the Player's playerConnection is null and false
 	 *			otherwise.
 	 */
 	public boolean getConnected() {
 		
-		if (playerOut == null) {
+		if (playerConnection == null) {
 			
 			return true;
 		}
@@ -284,15 +293,10 @@ public class Player {
 		return chatWaiting;
 	}
 
-	/**
-	 * A method which gets a String representing this Player's current
-	 * equipment.
-	 *
-	 * @return Returns a String displaying this Player's equipment.
-	 */
-	public String getAllEquipment() {
+	/** A method which shows this Player their current equipment. */
+	public void showAllEquipment() {
 		
-		return playerEquipment.displayEquipment();
+		playerEquipment.displayEquipment(this);
 	}
 
 	/**
@@ -416,9 +420,10 @@ public class Player {
 
 		String output = "";
 		
-		for(Player onePlayer: playerList) {
+		// Only those standing in the same Room need to be checked
+		for(Player onePlayer: player.getRoom().getOccupants()) {
 			
-			if (!onePlayer.equals(player) && player.getRoom().equals(onePlayer.getRoom())) {
+			if (onePlayer != player) {
 				
 				output += "#Y" + onePlayer.getName() + "#n is standing here, chilling.\n";
 			}
@@ -436,6 +441,17 @@ public class Player {
 		
 		return playerList.size();
 	}
+
+	/**
+	 * A method to get one of the Players currently online.
+	 *
+	 * @param index The Player's place in the playerList, from 0 up to getNumberOnline().
+	 * @return Returns the Player at that place.
+	 */
+	public static Player getOnlinePlayer(int index) {
+		
+		return playerList.get(index);
+	}
 	
 	/**
 	 * A method which resets a Player's list of discovered rooms as shown on
@@ -443,10 +459,8 @@ public class Player {
 	 */
 	public void clearDiscoveredRooms() {
 		
-		for(int i = 0; i < World.MAXROOMS; i++) {
-			
-			discoveredRooms[i][i] = false;
-		}
+		discoveredRooms.clear();
+		dirty = true;
 	}
 
 	/**
@@ -459,6 +473,13 @@ public class Player {
 	public static void addPlayer(Player newPlayer) {
 		
 		playerList.add(newPlayer);
+		
+		// They're now standing in their Room
+		if (newPlayer.currentRoom != null) {
+			
+			newPlayer.currentRoom.addOccupant(newPlayer);
+		}
+		
 		infoAll(newPlayer.getName() + " has logged into Java World.");
 	}
 
@@ -470,6 +491,7 @@ public class Player {
 	public void setTitle(String title) {
 		
 		playerTitle = title;
+		dirty = true;
 	}
 
 	/**
@@ -480,6 +502,7 @@ public class Player {
 	public void setRank(String rank) {
 		
 		playerRank = rank;
+		dirty = true;
 	}
 
 	/**
@@ -490,6 +513,7 @@ public class Player {
 	public void setShortDescription(String shortDescription) {
 		
 		this.shortDescription = shortDescription;
+		dirty = true;
 	}
 
 	/**
@@ -500,6 +524,7 @@ public class Player {
 	public void setLongDescription(String longDescription) {
 		
 		this.longDescription = longDescription;
+		dirty = true;
 	}
 
 	/**
@@ -510,6 +535,7 @@ public class Player {
 	public void setMaxHealth(int maxHealth) {
 		
 		maxHealth = maxHealth;
+		dirty = true;
 	}
 
 	/**
@@ -520,6 +546,7 @@ public class Player {
 	public void setMaxMana(int maxMana) {
 		
 		this.maxMana = maxMana;
+		dirty = true;
 	}
 
 	/**
@@ -530,6 +557,7 @@ public class Player {
 	public void setCurrentHealth(int currentHealth) {
 		
 		this.currentHealth = currentHealth;
+		dirty = true;
 	}
 
 	/**
@@ -540,6 +568,7 @@ public class Player {
 	public void setCurrentMana(int currentMana) {
 		
 		this.currentMana = currentMana;
+		dirty = true;
 	}
 
 	/**
@@ -550,6 +579,7 @@ public class Player {
 	public void setLevel(int level) {
 		
 		playerLevel = level;
+		dirty = true;
 	}
 
 	/**
@@ -559,7 +589,27 @@ public class Player {
 	 */
 	public void setCurrentRoom(Room room) {
 		
+		changeRoom(room);
+	}
+
+	/**
+	 * A method to move this Player into a new Room, keeping each Room's list of
+	 * occupants up to date. Only Players already in a Room's occupants, which is
+	 * to say those online, are added to the new Room's occupants.
+	 *
+	 * @param room The new Room this Player occupies.
+	 */
+	private void changeRoom(Room room) {
+		
+		// Whether this Player was counted as standing in their old Room
+		boolean wasOccupant = currentRoom != null && currentRoom.removeOccupant(this);
+		
 		currentRoom = room;
+		
+		if (wasOccupant && currentRoom != null) {
+			
+			currentRoom.addOccupant(this);
+		}
 	}
 
 	/**
@@ -630,123 +680,194 @@ public class Player {
 	 */
 	public static boolean checkPlayerExists(String playerName) {
 
-		// Ensure we're comparing against lowercase
-		if ((new File("../player/" + playerName.toLowerCase())).exists()) {
-			
-			return true;
-		}
-		
-		return false;
+		// The store's index knows once they're written, and the PersistenceQueue until then
+		return PlayerStore.contains(playerName.toLowerCase()) ||
+			   PersistenceQueue.isQueued(playerName.toLowerCase());
 	}
 
 	/**
-	 * A method to save a single player file and its accompanying discoveredRooms.
+	 * A method to save a single player record, with their discoveredRooms and Inventory. The
+	 * Player is copied right away and the record is written in the background by the
+	 * PersistenceQueue.
 	 *
 	 * @param onePlayer The player meant to be saved.
 	 */
 	public static void savePlayer(Player onePlayer) {
 		
-		// Declare a PrintWriter object for writing
-		PrintWriter fileOut = null;
+		PersistenceQueue.submit(onePlayer.snapshot());
+	}
+
+	/**
+	 * A method to test whether anything saved about this Player has changed since they were
+	 * last saved.
+	 *
+	 * @return Returns true if the Player, their Inventory or their Equipment has changed.
+	 */
+	public boolean isDirty() {
+		
+		return dirty || playerInventory.isDirty() || playerEquipment.isDirty();
+	}
+
+	/** A method to note that this Player, as they are now, has been saved. */
+	private void markSaved() {
+		
+		dirty = false;
+		playerInventory.markSaved();
+		playerEquipment.markSaved();
+	}
+
+	/**
+	 * A method to copy everything saved about this Player, so it can be written while they carry
+	 * on playing.
+	 *
+	 * @return Returns a PlayerSnapshot of this Player as they are now.
+	 */
+	public PlayerSnapshot snapshot() {
 		
-		// Let's try to write the entirety of the player to file
+		// The discovered rooms are encoded here, while nothing else can change them
+		ByteArrayOutputStream roomsBytes = new ByteArrayOutputStream();
+		// The rooms to encode; the Player's own set is only ever read
+		DiscoveredRooms savedRooms = discoveredRooms;
+		
+		// If there were literally no rooms discovered, they're saved knowing the home location
+		if (discoveredRooms.size() == 0) {
+			
+			savedRooms = new DiscoveredRooms();
+			savedRooms.discover(World.HOMELOCATION, World.HOMELOCATION);
+		}
+		
+		// Try to encode all the player's discovered rooms
 		try {
 			
-			// Instantiate our PrintWriter object
-			fileOut = new PrintWriter(new File("../player/" + onePlayer.getName().toLowerCase()));
-			
-			// Write the entirety of the player to file
-			fileOut.println(onePlayer.getName());
-			fileOut.println(onePlayer.getTitle());
-			fileOut.println(onePlayer.getRank());
-			fileOut.println(onePlayer.getShortDescription());
-			fileOut.println(onePlayer.getLongDescription());
-			fileOut.println(onePlayer.getLevel());
-			fileOut.println(onePlayer.getMaxHealth());
-			fileOut.println(onePlayer.getMaxMana());
-			fileOut.println(onePlayer.getCurrentHealth());
-			fileOut.println(onePlayer.getCurrentMana());
+			DataOutputStream roomsOut = new DataOutputStream(roomsBytes);
 			
-			// Always close the file!
-			fileOut.close();
+			savedRooms.save(roomsOut);
+			roomsOut.close();
 		}
 		
-		// Catch any exceptions
+		// Catch any Exceptions
 		catch (IOException e) {
 			
-			System.out.println("IOException in savePlayer: " + e.getMessage());
-			System.exit(0);
+			System.out.println("IOException in snapshot(discRooms): " + e.getMessage());
 		}
 		
-		catch (Exception e) {
+		// And so is the Inventory
+		ByteArrayOutputStream inventoryBytes = new ByteArrayOutputStream();
+		
+		// Try to encode every Item
+		try {
 			
-			System.out.println("Generic Exception in savePlayer: " + e.getMessage());
-			System.exit(0);
+			DataOutputStream inventoryOut = new DataOutputStream(inventoryBytes);
+			
+			playerInventory.save(inventoryOut);
+			inventoryOut.close();
 		}
 		
-		// Try to save all the player's discovered rooms
-		try {
+		// Catch any Exceptions
+		catch (IOException e) {
+			
+			System.out.println("IOException in snapshot(inventory): " + e.getMessage());
+		}
+		
+		// Whatever changes from here on is for the next save
+		markSaved();
+		
+		return new PlayerSnapshot(getName(), getTitle(), getRank(), getShortDescription(),
+								  getLongDescription(), getLevel(), getMaxHealth(), getMaxMana(),
+								  getCurrentHealth(), getCurrentMana(), roomsBytes.toByteArray(),
+								  inventoryBytes.toByteArray());
+	}
 
-			// Test whether the user has discovered a single room or not
-			boolean oneRoom = false;
+	/**
+	 * A method to load a player given the player's name. A Player still saved in the old text
+	 * files is saved again straight away, as a player record.
+	 *
+	 * @param playerName The name of the player to load.
+	 * @return Returns the loaded Player Object, or null if their save can't be read.
+	 */
+	public static Player loadPlayer(String playerName) {
+		
+		// The Player's record, if they have one
+		PlayerSnapshot record = null;
+		// The Player loaded from it
+		Player onePlayer = null;
+		
+		// Ensure we're working with a lower case String
+		playerName = playerName.toLowerCase();
+		
+		// A save still waiting to be written is newer than the files
+		record = PersistenceQueue.latest(playerName);
+
+		// Try to read the record
+		try {
 			
-			// Instantiate the PrintWriter to a discoveredRooms file
-			fileOut = new PrintWriter(new File("../player/" + onePlayer.getName().toLowerCase() +
-											   ".discoveredRooms"));
+			if (record == null) {
+				
+				record = PlayerSnapshot.read(playerName);
+			}
 			
-			// ... this is a little rough in a save function
-			for(int i = 0; i < World.MAXROOMS; i++) {
+			// Saved before there were records
+			if (record == null) {
+				
+				onePlayer = loadLegacyPlayer(playerName);
 				
-				// ... possibly convert to a linked list
-				for(int c = 0; c < World.MAXROOMS; c++) {
+				// Only a Player we could read is saved again
+				if (onePlayer != null) {
 					
-					// Check MAXROOMS * MAXROOMS to see if it's discovered
-					if (onePlayer.discoveredRooms[i][c]) {
-						
-						// Print out the (x, y) into the discoveredRooms file
-						fileOut.print(i + " " + c + " ");
-						oneRoom = true;
-					}
+					savePlayer(onePlayer);
 				}
+				
+				return onePlayer;
 			}
 			
-			// If there were literally no rooms discovered, they know of the home location
-			if (!oneRoom) {
+			onePlayer = new Player();
+			onePlayer.setName(record.getName());
+			onePlayer.setTitle(record.getTitle());
+			onePlayer.setRank(record.getRank());
+			onePlayer.setShortDescription(record.getShortDescription());
+			onePlayer.setLongDescription(record.getLongDescription());
+			onePlayer.setLevel(record.getLevel());
+			onePlayer.setMaxHealth(record.getMaxHealth());
+			onePlayer.setMaxMana(record.getMaxMana());
+			onePlayer.setCurrentHealth(record.getCurrentHealth());
+			onePlayer.setCurrentMana(record.getCurrentMana());
+			
+			record.loadInventory(onePlayer.playerInventory);
+			
+			// Rooms discovered under another seed mean nothing now
+			if (!Config.getNewSeedFile()) {
 				
-				fileOut.print(World.HOMELOCATION + " " + World.HOMELOCATION + " ");
+				onePlayer.discoveredRooms = record.getDiscoveredRooms();
 			}
 			
-			// -1 indicates the end of the section
-			fileOut.println("-1");
+			// New seed file, they only have HOME LOCATION discovered
+			else {
+				
+				onePlayer.discoveredRooms.discover(World.HOMELOCATION, World.HOMELOCATION);
+			}
 			
-			// Always close the file!
-			fileOut.close();
+			// Just as they were saved
+			onePlayer.markSaved();
 		}
-
+		
 		// Catch any Exceptions
 		catch (IOException e) {
 			
-			System.out.println("IOException in savePlayer(discRooms): " + e.getMessage());
-			System.exit(0);
-		}
-		
-		catch (Exception e) {
+			System.out.println("IOException in loadPlayer: " + e.getMessage());
 			
-			System.out.println("Generic Exception in savePlayer(discRooms): " + e.getMessage());
-			System.exit(0);
+			return null;
 		}
 		
-		// Save the player's inventory
-		onePlayer.playerInventory.saveInventory(onePlayer.getName());
+		return onePlayer;
 	}
 
 	/**
-	 * A method to load a player given the player's name.
+	 * A method to load a player from the text files they were saved in before player records.
 	 *
-	 * @param playerName The name of the player to load.
-	 * @return Returns the loaded Player Object.
+	 * @param playerName The lowercase name of the player to load.
+	 * @return Returns the loaded Player Object, or null if their files can't be read.
 	 */
-	public static Player loadPlayer(String playerName) {
+	private static Player loadLegacyPlayer(String playerName) {
 		
 		// Declare a Scanner Object to read in from a file
 		Scanner fileIn = null;
@@ -762,9 +883,6 @@ public class Player {
 		int currentHealth = 0;
 		int currentMana = 0;
 		
-		// Ensure we're working with a lower case String
-		playerName = playerName.toLowerCase();
-
 		// Make sure we're doing this safely
 		try {
 
@@ -791,13 +909,15 @@ public class Player {
 		catch (IOException e) {
 			
 			System.out.println("IOException in loadPlayer: " + e.getMessage());
-			System.exit(0);
+			
+			return null;
 		}
 		
 		catch (Exception e) {
 			
 			System.out.println("General Exception in LoadPlayer: " + e.getMessage());
-			System.exit(0);
+			
+			return null;
 		}
 		
 		// Create a new Player and set its values
@@ -822,62 +942,58 @@ public class Player {
 			// Let's try to load the given file
 			try {
 	
-				int roomX = 0;
-				int roomY = 0;
-				boolean keepGoing = true;
-	
-				playerName = playerName.toLowerCase();
+				File roomsFile = new File("../player/" + playerName.toLowerCase() + ".discoveredRooms");
+				DataInputStream roomsIn = new DataInputStream(new BufferedInputStream(
+						new FileInputStream(roomsFile)));
 
-				fileIn = new Scanner(new File("../player/" + playerName + ".discoveredRooms"));
-	
-				while(keepGoing) {
+				// Binary saves start with the magic number
+				if (roomsFile.length() >= 4 && roomsIn.readInt() == DiscoveredRooms.MAGIC) {
 					
-					roomX = fileIn.nextInt();
+					onePlayer.discoveredRooms = DiscoveredRooms.load(roomsIn);
+					roomsIn.close();
+				}
+				
+				// Otherwise it's the old list of "x y" pairs, which is rewritten on the next save
+				else {
 					
-					if (roomX != -1) {
-	
-						roomY = fileIn.nextInt();
-						
-						onePlayer.discoveredRooms[roomX][roomY] = true;
-					}
+					roomsIn.close();
 					
-					else {
-						
-						keepGoing = false;
-					}
+					fileIn = new Scanner(roomsFile);
+					onePlayer.discoveredRooms = DiscoveredRooms.loadLegacy(fileIn);
+					fileIn.close();
 				}
-	
-				fileIn.close();
 			}
 	
 			// Catch any Exceptions
 			catch (IOException e) {
 				
 				System.out.println("IOException in loadPlayer: " + e.getMessage());
-				System.exit(0);
+				
+				return null;
 			}
 			
 			catch (Exception e) {
 				
 				System.out.println("General Exception in LoadPlayer: " + e.getMessage());
-				System.exit(0);
+				
+				return null;
 			}
 		}
 		
 		// New seed file, they only have HOME LOCATION discovered
 		else {
 			
-			onePlayer.discoveredRooms[World.HOMELOCATION][World.HOMELOCATION] = true;
+			onePlayer.discoveredRooms.discover(World.HOMELOCATION, World.HOMELOCATION);
 		}
 		
 		// Return the given player
 		return onePlayer;
 	}
 	
-	/** A method to save this player's inventory. */
+	/** A method to save this player's inventory, which is saved along with the rest of them. */
 	public void saveInventory() {
 		
-		playerInventory.saveInventory(playerName);
+		savePlayer(this);
 	}
 
 	/** 
@@ -887,27 +1003,27 @@ public class Player {
 	 */
 	public static void messageAll(String msg) {
 		
-		for(Player onePlayer: playerList) {
-			
-			onePlayer.message(msg);
-			onePlayer.message(onePlayer.buildPrompt());
-		}
+		messageAll(msg, null);
 	}
 	
 	/**
-	 * Messages all currently connected Players except given Player.
+	 * Messages all currently connected Players except given Player. The message is
+	 * colorized and encoded once, and the same bytes are buffered for every Player
+	 * along with their own prompt.
 	 *
 	 * @param msg The message to send to all the Players.
-	 * @param dontMsg The Player who should not receive the message.
+	 * @param dontMsg The Player who should not receive the message, or null.
 	 */
 	public static void messageAll(String msg, Player dontMsg) {
 		
+		byte[] encoded = OutputBuffer.encode(msg);
+		
 		for(Player onePlayer: playerList) {
 			
-			if (!onePlayer.equals(dontMsg)) {
+			if (onePlayer != dontMsg) {
 				
-				onePlayer.message(msg);
-				onePlayer.message(onePlayer.buildPrompt());
+				onePlayer.message(encoded);
+				onePlayer.sendPrompt();
 			}
 		}
 	}
@@ -931,7 +1047,7 @@ public class Player {
 				
 				// Message the given player
 				onePlayer.message(msg + "\n\r");
-				onePlayer.message(onePlayer.buildPrompt());
+				onePlayer.sendPrompt();
 			}
 		}
 	}
@@ -991,9 +1107,9 @@ public class Player {
 	}
 	
 	/**
-	 * A method to create the player's password file (Serialized).
+	 * A method to save the player's Password (Serialized) in the PlayerStore.
 	 *
-	 * @param newPlayer The given Player to create a Password File for.
+	 * @param newPlayer The given Player to save a Password for.
 	 */
 	public static void createPWordFile(Player newPlayer) {
 
@@ -1002,15 +1118,10 @@ public class Player {
 		// Get the player's name
 		String charName = newPlayer.getName().toLowerCase();
 		
-		// Save the serialized player password file		
+		// Save the serialized player password
 		try {
 
-			ObjectOutputStream objWriter = new ObjectOutputStream(
-											new FileOutputStream("../player/pwdfiles/" + charName));
-			
-			objWriter.writeObject(pWord);
-			
-			objWriter.close();
+			savePWord(charName, pWord);
 		}
 
 		// Catch thrown exceptions		
@@ -1023,8 +1134,28 @@ public class Player {
 		}
 	}
 	
+	/**
+	 * A method to serialize a Password and queue it to be written to the PlayerStore by the
+	 * PersistenceQueue.
+	 *
+	 * @param charName The lowercase name of the Player.
+	 * @param pWord The Player's Password.
+	 * @throws IOException Thrown if the Password can't be saved.
+	 */
+	private static void savePWord(String charName, Password pWord) throws IOException {
+		
+		ByteArrayOutputStream pWordBytes = new ByteArrayOutputStream();
+		ObjectOutputStream objWriter = new ObjectOutputStream(pWordBytes);
+		
+		objWriter.writeObject(pWord);
+		objWriter.close();
+		
+		PersistenceQueue.submitPassword(charName, pWordBytes.toByteArray());
+	}
+	
 	/** 
-	 * A method to load the given password file from the player's name.
+	 * A method to load the given Player's Password from the PlayerStore, or from their
+	 * password file if they were saved before the store, moving it into the store.
 	 *
 	 * @param charName The name of the Player meant to be loaded
 	 * @return Returns a Password Object of the given Player.
@@ -1033,20 +1164,47 @@ public class Player {
 		
 		// Declare a Password object
 		Password pWord = null;
+		// The serialized Password from the store
+		byte[] pWordBytes = null;
 		// Ensure we have an accurate player name
 		charName = charName.toLowerCase();
 		
-		// Try to open the PWD File
+		// Try to read the Password
 		try {
 			
-			ObjectInputStream objReader = new ObjectInputStream(
-											new FileInputStream("../player/pwdfiles/" + charName));
+			// One not written yet is the newest
+			pWordBytes = PersistenceQueue.latestPassword(charName);
+			
+			if (pWordBytes == null) {
+				
+				pWordBytes = PlayerStore.read(PlayerStore.PASSWORD, charName);
+			}
 			
-			// Read in a Serialized password (typecasted appropriately)
-			pWord = (Password)objReader.readObject();
+			// In the store, it's a single read
+			if (pWordBytes != null) {
+				
+				ObjectInputStream objReader = new ObjectInputStream(
+												new ByteArrayInputStream(pWordBytes));
+				
+				pWord = (Password)objReader.readObject();
+				objReader.close();
+			}
 			
-			// Close the ObjectInputStream ... Always close it!
-			objReader.close();
+			// Otherwise it's in the PWD File
+			else {
+				
+				ObjectInputStream objReader = new ObjectInputStream(
+												new FileInputStream("../player/pwdfiles/" + charName));
+				
+				// Read in a Serialized password (typecasted appropriately)
+				pWord = (Password)objReader.readObject();
+				
+				// Close the ObjectInputStream ... Always close it!
+				objReader.close();
+				
+				// And from now on it's in the store
+				savePWord(charName, pWord);
+			}
 		}
 
 		// Catch any exceptions thrown
@@ -1082,40 +1240,20 @@ public class Player {
 		
 		for(Player onePlayer: playerList) {
 
-			onePlayer.message(onePlayer.buildPrompt());
+			onePlayer.sendPrompt();
 		}
 	}
 
 	/**
-	 * A method to set the Player's Socket connection.
+	 * A method to set the Player's Connection.
 	 *
-	 * @param playerConnection The Socket connection to be set on the Player Object.
+	 * @param playerConnection The Connection to be set on the Player Object.
 	 */
-	public void setPlayerConnection(Socket playerConnection) {
+	public void setConnection(Connection playerConnection) {
 		
 		this.playerConnection = playerConnection;
 	}
 
-	/**
-	 * A method to set the Player's output stream.
-	 *
-	 * @param playerOut The new output stream for the Player.
-	 */
-	public void setOutput(OutputStream playerOut) {
-		
-		this.playerOut = playerOut;
-	}
-
-	/**
-	 * A method to set the Player's input stream.
-	 *
-	 * @param playerIn The new input stream for the Player.
-	 */
-	public void setInput(InputStream playerIn) {
-		
-		this.playerIn = playerIn;
-	}
-
 	/**
 	 * A method to set the Player's name.
 	 *
@@ -1124,6 +1262,12 @@ public class Player {
 	public void setName(String playerName) {
 		
 		this.playerName = playerName;
+
+		// Anyone looking at the room should see the new name
+		if (currentRoom != null) {
+
+			currentRoom.refreshOccupants();
+		}
 	}
 
 	/**
@@ -1144,6 +1288,7 @@ public class Player {
 	public void setHealth(int currentHealth) {
 		
 		this.currentHealth = currentHealth;
+		dirty = true;
 	}
 	
 	/*********************************************
@@ -1153,38 +1298,32 @@ public class Player {
 	 *********************************************/
 
 	/**
-	 * A method to read input from this Player.
+	 * A method to read input from this Player. Lines the client sent before going away are
+	 * still read, so a last save or quit isn't lost.
 	 *
 	 * @return Returns a String with the Player's input up to the next newline.
 	 */
 	public String readInput() {
 		
-		// For user input
-		int c = 0;
-		String temp = "";
+		// Whether the client had gone away before we looked for a line
+		boolean gone = false;
+		// The next complete line, if there is one
+		String oneLine = null;
 		
-		// Working with sockets
+		// Working with the connection
 		try {
 
-			// If there's something to be read from the socket
-			if (this.playerIn.available() > 0) {
-				
-				// Let's read it in character by character
-				while((c = this.playerIn.read()) >= 0) {
-					
-					// If this constitutes one command, we return the input
-					if (c == '\n') {
-						
-						return temp;
-					}
-					
-					// Otherwise, so long as it's a valid character, we build the String
-					else if (c >= 32 && c <= 126) {
-						
-						temp += (char)c;
-					}
-				}
-			}		
+			// Checked first, since everything read before a Connection closes is already queued
+			gone	= playerConnection.isClosed();
+			oneLine	= playerConnection.readLine();
+
+			// If the client has gone away and everything they sent is read, they've effectively quit
+			if (oneLine == null && gone) {
+
+				playerQuit = true;
+			}
+
+			return oneLine;
 		}
 		
 		// Catch any Exceptions
@@ -1201,27 +1340,76 @@ public class Player {
 			System.exit(0);
 		}
 		
-		// There was nothing in the socket to read
+		// There was nothing in the connection to read
 		return null;
 	}
 	
 	/**
-	 * A method to message one Player connected to JavaWorld.
+	 * A method to message one Player connected to JavaWorld. The message is buffered
+	 * and written along with everything else the Player is sent this game loop.
 	 *
 	 * @param msg The message to send to this Player.
 	 */
 	public void message(String msg) {
 		
-		msg = TextManipulator.addColor(msg);
+		playerOutput.appendColored(msg);
+		
+		// Don't let a huge burst of output pile up until the end of the loop
+		if (playerOutput.isFull()) {
+			
+			flushOutput();
+		}
+	}
+	
+	/**
+	 * A method to message one Player a precompiled ColorTemplate. As with any other
+	 * message, it's buffered until the end of the game loop.
+	 *
+	 * @param template The ColorTemplate to send to this Player.
+	 * @param arguments The text for each of the template's placeholders.
+	 */
+	public void message(ColorTemplate template, String... arguments) {
 		
-		// Working with sockets
+		template.appendTo(playerOutput, arguments);
+		
+		// Don't let a huge burst of output pile up until the end of the loop
+		if (playerOutput.isFull()) {
+			
+			flushOutput();
+		}
+	}
+
+	/**
+	 * A method to message one Player text which has already been colorized and encoded,
+	 * such as a broadcast encoded once for everybody it's sent to.
+	 *
+	 * @param encoded The encoded text to send to this Player.
+	 */
+	public void message(byte[] encoded) {
+		
+		playerOutput.append(encoded);
+		
+		// Don't let a huge burst of output pile up until the end of the loop
+		if (playerOutput.isFull()) {
+			
+			flushOutput();
+		}
+	}
+
+	/** A method to write everything buffered for this Player to their Connection. */
+	public void flushOutput() {
+		
+		// Nobody to send it to; readInput quits them once everything they sent has been read
+		if (playerConnection.isClosed()) {
+			
+			playerOutput.clear();
+			return;
+		}
+		
+		// Working with the connection
 		try {
 			
-			// Write one character at a time to the socket
-			for(int i = 0; i < msg.length(); i++) {
-				
-				playerOut.write(msg.charAt(i));
-			}
+			playerOutput.flush(playerConnection);
 		}
 		
 		// Catch any Exceptions
@@ -1229,13 +1417,32 @@ public class Player {
 			
 			if (!playerQuit) {
 
-				System.out.println("Caught IOException in method message: " + e.getMessage());
+				System.out.println("Caught IOException in method flushOutput: " + e.getMessage());
 				System.out.print("Expecting client has disconnected. Removing player from ");
 				System.out.println("the player list.");
 				
 				playerQuit = true;
 			}
 		}
+		
+		// A client which has stopped reading is hung up on, rather than kept forever
+		if (!playerQuit && playerConnection.getOverLimitMillis() >
+						   Config.getSlowClientSeconds() * 1000L) {
+			
+			System.out.println(getName() + " isn't reading their output. Disconnecting.");
+			
+			playerConnection.abort();
+			playerQuit = true;
+		}
+	}
+
+	/** A method to write everything buffered for every Player, called once per game loop. */
+	public static void flushAllOutput() {
+		
+		for(Player onePlayer: playerList) {
+			
+			onePlayer.flushOutput();
+		}
 	}
 
 	/** A method to ensure the password field is empty. */
@@ -1271,20 +1478,24 @@ public class Player {
 	public static void damagePlayersInRoom(int x, int y, String shortDescription) {
 
 		int damage = 0;
+		Room room = World.getRoom(x, y);
 		
-		for(Player onePlayer: playerList) {
+		// Nobody can be standing in a Room which doesn't exist, and nobody is hurt along the home row or column
+		if (room == null || x == 100 || y == 100) {
+			
+			return;
+		}
+		
+		for(Player onePlayer: room.getOccupants()) {
 			
 			if (!onePlayer.isAdmin()) {
 				
-				if (onePlayer.getX() == x && onePlayer.getY() == y && x != 100 && y != 100) {
-					
-                    // Do 2-5 damage to a player
-                    damage = ToolKit.rand(2, 5);
-                    onePlayer.damagePlayer(damage);
-                    onePlayer.message(shortDescription + " lashes out at you! Ouch! [#R" + 
-                    									 damage + "#n]");
-                    onePlayer.message(onePlayer.buildPrompt());					
-				}
+                // Do 2-5 damage to a player
+                damage = ToolKit.rand(2, 5);
+                onePlayer.damagePlayer(damage);
+                onePlayer.message(shortDescription + " lashes out at you! Ouch! [#R" + 
+                									 damage + "#n]");
+                onePlayer.sendPrompt();					
 			}
 		}		
 	}
@@ -1297,16 +1508,12 @@ public class Player {
 	public void damagePlayer(int damageAmount) {
 		
 		currentHealth -= damageAmount;
+		dirty = true;
 	}
 
-	/**
-	 * A method to build an individual player's prompt.	
-	 *
-	 * @return Returns the constructed Prompt as a String.
-	 */
-	public String buildPrompt() {
+	/** A method to send an individual player their prompt. */
+	public void sendPrompt() {
 		
-		String temp;
 		String hColor;
 		String nColor = "#y";
 		
@@ -1333,12 +1540,9 @@ public class Player {
 			nColor = "#g";
 		}
 		
-		// Build the prompt
-		temp = "\r\n<" + nColor + this.getName() + "#n: " + hColor + this.getHealth() + 
-			   "#n/#C" + this.getMaxHealth() + "#n> ";
-		
-		// Return the prompt
-		return temp;
+		// Fill in the prompt and send it
+		message(PROMPT, nColor, this.getName(), hColor, String.valueOf(this.getHealth()),
+				String.valueOf(this.getMaxHealth()));
 	}
 	
 	/**
@@ -1349,10 +1553,8 @@ public class Player {
 	 */
 	public void undiscoverRoom(int x, int y) {
 		
-        if (x >= 0 && y >= 0 && x < World.MAXROOMS && y < World.MAXROOMS) {
-
-            discoveredRooms[x][y] = false;
-        }
+        discoveredRooms.undiscover(x, y);
+        dirty = true;
 	}
 	
 	/**
@@ -1363,9 +1565,10 @@ public class Player {
 	 */
 	public void setLocation(int x, int y) {
 	
-		if (x >= 0 && x < World.MAXROOMS && y >= 0 && y < World.MAXROOMS) {
+		// Nobody can stand somewhere with no Room
+		if (World.checkRoomExists(x, y)) {
 		
-			this.currentRoom = World.getRoom(x, y);
+			changeRoom(World.getRoom(x, y));
 		}
 	}
     
@@ -1379,9 +1582,9 @@ public class Player {
 		int x = this.currentRoom.getX();
 		int y = this.currentRoom.getY();
 		
-		if (World.checkRoomExists(x + 1, y)) {
+		if (currentRoom.hasExit(Room.EAST)) {
 			
-			this.currentRoom = World.getRoom(x + 1, y);
+			changeRoom(World.getRoom(x + 1, y));
 			return true;
 		}
 		
@@ -1398,9 +1601,9 @@ public class Player {
 		int x = this.currentRoom.getX();
 		int y = this.currentRoom.getY();
 		
-		if (World.checkRoomExists(x - 1, y)) {
+		if (currentRoom.hasExit(Room.WEST)) {
 			
-			this.currentRoom = World.getRoom(x - 1, y);
+			changeRoom(World.getRoom(x - 1, y));
 			return true;
 		}
 		
@@ -1417,9 +1620,9 @@ public class Player {
 		int x = this.currentRoom.getX();
 		int y = this.currentRoom.getY();
 		
-		if (World.checkRoomExists(x, y + 1)) {
+		if (currentRoom.hasExit(Room.NORTH)) {
 			
-			this.currentRoom = World.getRoom(x, y + 1);
+			changeRoom(World.getRoom(x, y + 1));
 			return true;
 		}
 		
@@ -1436,9 +1639,9 @@ public class Player {
 		int x = this.currentRoom.getX();
 		int y = this.currentRoom.getY();
 		
-		if (World.checkRoomExists(x, y - 1)) {
+		if (currentRoom.hasExit(Room.SOUTH)) {
 			
-			this.currentRoom = World.getRoom(x, y - 1);
+			changeRoom(World.getRoom(x, y - 1));
 			return true;
 		}
 		
@@ -1448,12 +1651,11 @@ public class Player {
 	/** A method to discover a given (x, y) room for a Player. */
     public void discoverRoom() {
 
-        int x = getX();
-        int y = getY();
-
-        if (x >= 0 && x < World.MAXROOMS && y >= 0 && y < World.MAXROOMS) {
+		// Walking back through known rooms changes nothing worth saving
+        if (!discoveredRooms.isDiscovered(getX(), getY())) {
 
-            discoveredRooms[x][y] = true;
+        	discoveredRooms.discover(getX(), getY());
+        	dirty = true;
         }
 	}
 
@@ -1467,12 +1669,7 @@ public class Player {
 	 */
     public boolean discoveredRoom(int x, int y) {
 	
-        if (x >= 0 && y >= 0 && x < World.MAXROOMS && y < World.MAXROOMS) {
-
-            return discoveredRooms[x][y];
-        }
-        
-        return false;
+        return discoveredRooms.isDiscovered(x, y);
 	}
 	
 	/** A method to update the state of the Player. */
@@ -1484,11 +1681,14 @@ public class Player {
 	/** 
 	 * A method to read input from the player's socket and Interpret it via 
 	 * the Interpreter class.
+	 *
+	 * @return Returns true if any Player had input, in which case more may be waiting.
 	 */
-	public static void interpretInput() {
+	public static boolean interpretInput() {
 		
 		String playerInput = "";
 		Player quitPlayer = null;
+		boolean hadInput = false;
 		
 		// Iterate through the list of Players to interpret their input
 		for(Player onePlayer : playerList) {
@@ -1500,6 +1700,11 @@ public class Player {
 			
 			playerInput = onePlayer.readInput();
 			
+			if (playerInput != null) {
+				
+				hadInput = true;
+			}
+			
 			if (playerInput != null && playerInput != "") {
 
 				Interpreter.checkCommand(onePlayer, playerInput);					
@@ -1518,9 +1723,20 @@ public class Player {
 
 			playerList.remove(quitPlayer);
 			
+			// And they're no longer standing anywhere
+			if (quitPlayer.currentRoom != null) {
+				
+				quitPlayer.currentRoom.removeOccupant(quitPlayer);
+			}
+			
 			System.out.println(tempName + " has quit.");
 			infoAll(tempName + " has logged out of Java World.");
+			
+			// Somebody else may have quit too
+			hadInput = true;
 		}
+		
+		return hadInput;
 	}
 
 	/**
@@ -1647,23 +1863,104 @@ public class Player {
 		return playerEquipment.unequipItem(oneItem);
 	}
 	
-	/** A method to save every player, then close their connection. */
+	/**
+	 * A method to save every player, then close their connection, giving up on whatever isn't
+	 * finished within PersistenceQueue.SHUTDOWN_MILLIS. Everybody is copied and sent the last
+	 * of their output here on the game thread; the copies are committed together by the
+	 * PersistenceQueue while a few threads hang up on everybody, so neither waits on the
+	 * other, and a connection which won't close can't hold up anybody's save. How it went is
+	 * reported to the console, counting only the saves which were actually committed.
+	 */
 	public static void saveAndCloseConnections() {
 		
-		for(Player onePlayer: Player.playerList) {
-
-			Interpreter.commandSavePlayer(onePlayer);
+		long started = System.currentTimeMillis();
+		long deadline = started + PersistenceQueue.SHUTDOWN_MILLIS;
+		int players = playerList.size();
+		int saved = 0;
+		StringBuilder unsaved = new StringBuilder();
+		long elapsed = 0;
+		boolean drained = false;
+		boolean closed = false;
+		
+		// Hanging up is done by daemon threads, so a stuck one can't keep the game running
+		ExecutorService closer = Executors.newFixedThreadPool(
+									Math.max(1, Math.min(SHUTDOWN_CLOSE_THREADS, players)),
+									(task) -> {
+										Thread closeThread = new Thread(task, "ShutdownClose");
+										closeThread.setDaemon(true);
+										return closeThread;
+									});
+		
+		// Everybody is copied, and sent everything they're owed, before anybody is hung up on
+		for(Player onePlayer: playerList) {
 			
-			try {
-
-				onePlayer.playerConnection.close();
+			onePlayer.message("Saving player file.\n\r");
+			savePlayer(onePlayer);
+			onePlayer.flushOutput();
+		}
+		
+		// Then every connection is closed in the background
+		for(Player onePlayer: playerList) {
+			
+			closer.execute(() -> {
+				
+				try {
+					
+					onePlayer.playerConnection.close();
+				}
+				
+				catch (IOException e) {
+					
+					System.out.println("IOException with comm_shutdown: " + e.getMessage());
+				}
+			});
+		}
+		
+		closer.shutdown();
+		
+		// While the saves are committed
+		drained = PersistenceQueue.drain(Math.max(1, deadline - System.currentTimeMillis()));
+		
+		// Try to wait out the rest of the hanging up
+		try {
+			
+			closed = closer.awaitTermination(Math.max(1, deadline - System.currentTimeMillis()),
+											 TimeUnit.MILLISECONDS);
+		}
+		
+		// Catch any Exceptions
+		catch (InterruptedException e) {
+			
+			System.out.println("Exception in saveAndCloseConnections: " + e.getMessage());
+		}
+		
+		if (!closed) {
+			
+			System.out.println("Gave up closing " + closer.shutdownNow().size() +
+							   " connections, and any still closing.");
+		}
+		
+		// Only a save which is on the disk counts; one still waiting or failed doesn't
+		for(Player onePlayer: playerList) {
+			
+			if (PersistenceQueue.isSaved(onePlayer.getName().toLowerCase())) {
+				
+				saved++;
 			}
 			
-			catch (IOException e) {
+			else {
 				
-				System.out.println("IOException with comm_shutdown: " + e.getMessage());
+				unsaved.append(unsaved.length() == 0 ? "" : ", ").append(onePlayer.getName());
 			}
 		}
+		
+		// Let the admin know how it went
+		elapsed = Math.max(1, System.currentTimeMillis() - started);
+		
+		System.out.println("Shutdown saved " + saved + " of " + players + " players in " +
+						   elapsed + "ms (" + (saved * 1000L / elapsed) + " players per second)" +
+						   (saved < players ? "; " + (players - saved) + " failed: " + unsaved + "." :
+						   ".") + (drained ? "" : " Some saves were still waiting."));
 	}
 
 	/**
@@ -1692,15 +1989,9 @@ public class Player {
 	 */
 	public static boolean anyPlayersInRoom(int roomX, int roomY) {
 		
-		for(Player onePlayer: playerList) {
-			
-			if (onePlayer.getX() == roomX && onePlayer.getY() == roomY) {
-				
-				return true;
-			}
-		}
-                
-        return false;		
+		Room room = World.getRoom(roomX, roomY);
+		
+		return room != null && room.playersInRoom();
 	}
 
 	/**
@@ -1712,14 +2003,7 @@ public class Player {
 	 */
 	public static void messageTheRoom(int x, int y, String message) {
 		
-		for(Player onePlayer: playerList) {
-			
-			if (onePlayer.getX() == x && onePlayer.getY() == y) {
-				
-            	onePlayer.message(message);
-                onePlayer.message(onePlayer.buildPrompt());
-			}
-		}        		
+		messageTheRoom(x, y, message, null);
 	}
 
 	/**
@@ -1733,13 +2017,24 @@ public class Player {
 	 */
 	public static void messageTheRoom(int x, int y, String message, Player dontMsg) {
 		
-		for(Player onePlayer: playerList) {
+		Room room = World.getRoom(x, y);
+		byte[] encoded = null;
+		
+		// Nobody can be standing in a Room which doesn't exist
+		if (room == null) {
+			
+			return;
+		}
+		
+		// Everybody in the room is sent the same bytes
+		encoded = OutputBuffer.encode(message);
+		
+		for(Player onePlayer: room.getOccupants()) {
 			
-			if (onePlayer.getX() == x && onePlayer.getY() == y && 
-				onePlayer != dontMsg) {
+			if (onePlayer != dontMsg) {
 				
-            	onePlayer.message(message);
-                onePlayer.message(onePlayer.buildPrompt());
+            	onePlayer.message(encoded);
+                onePlayer.sendPrompt();
 			}
 		}        		
 	}
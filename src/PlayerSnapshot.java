@@ -0,0 +1,383 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The PlayerSnapshot class is a copy of everything saved about a Player, taken at the moment
+ *		they asked to be saved, and is also what the Player is saved as: a single versioned
+ *		binary record holding their profile, discovered rooms and Inventory together. Nothing in a
+ *		snapshot can change once it's made, so it can be written to disk by another thread while
+ *		the Player carries on playing.
+ *
+ *	Structure / Process
+ *
+ *		Player.snapshot makes a snapshot on the game thread, encoding the discovered rooms and the
+ *		Inventory as they're copied, and the PersistenceQueue encodes it from its own thread and
+ *		appends it to the PlayerStore. Player.loadPlayer calls read, which gives back the
+ *		snapshot that was saved.
+ *
+ *		A record starts with MAGIC and VERSION, then holds the profile, then the discovered rooms
+ *		and the Inventory, each in their own binary format and each preceded by its length in
+ *		bytes. Before the PlayerStore, records were saved in ../player/name, and before records,
+ *		Players had a text profile in that file, with their discovered rooms and Inventory in
+ *		files of their own. read falls back on ../player/name for anybody not in the store yet,
+ *		and reports a text profile by returning null, so the old files can be loaded instead;
+ *		either way, their next save moves them into the store.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Player#snapshot()
+ * @see PersistenceQueue
+ */
+public final class PlayerSnapshot {
+
+	/** The first four bytes of a player record, a NUL then "JWP"; no text profile starts so. */
+	public static final int MAGIC	= 0x004A5750;
+	/** The version of the player record format. */
+	private static final int VERSION	= 1;
+	/** The directory records were saved in before the PlayerStore. */
+	private static final String PLAYER_DIRECTORY	= "../player/";
+
+	/** The Player's name, as shown in the game. */
+	private final String name;
+	/** The Player's title. */
+	private final String title;
+	/** The Player's rank. */
+	private final String rank;
+	/** The Player's short description. */
+	private final String shortDescription;
+	/** The Player's long description. */
+	private final String longDescription;
+	/** The Player's level. */
+	private final int level;
+	/** The Player's maximum health. */
+	private final int maxHealth;
+	/** The Player's maximum mana. */
+	private final int maxMana;
+	/** The Player's current health. */
+	private final int currentHealth;
+	/** The Player's current mana. */
+	private final int currentMana;
+	/** The Player's discovered rooms, already in the binary save format. */
+	private final byte[] discoveredRooms;
+	/** The Player's Inventory, already in the binary save format. */
+	private final byte[] inventory;
+
+	/**
+	 * A parameterized constructor holding a copy of every saved value of a Player.
+	 *
+	 * @param name The Player's name.
+	 * @param title The Player's title.
+	 * @param rank The Player's rank.
+	 * @param shortDescription The Player's short description.
+	 * @param longDescription The Player's long description.
+	 * @param level The Player's level.
+	 * @param maxHealth The Player's maximum health.
+	 * @param maxMana The Player's maximum mana.
+	 * @param currentHealth The Player's current health.
+	 * @param currentMana The Player's current mana.
+	 * @param discoveredRooms The Player's discovered rooms in the binary save format; the
+	 *							array must not be changed afterwards.
+	 * @param inventory The Player's Inventory in the binary save format; the array must not
+	 *					be changed afterwards.
+	 */
+	public PlayerSnapshot(String name, String title, String rank, String shortDescription,
+						  String longDescription, int level, int maxHealth, int maxMana,
+						  int currentHealth, int currentMana, byte[] discoveredRooms,
+						  byte[] inventory) {
+
+		this.name				= name;
+		this.title				= title;
+		this.rank				= rank;
+		this.shortDescription	= shortDescription;
+		this.longDescription	= longDescription;
+		this.level				= level;
+		this.maxHealth			= maxHealth;
+		this.maxMana			= maxMana;
+		this.currentHealth		= currentHealth;
+		this.currentMana		= currentMana;
+		this.discoveredRooms	= discoveredRooms;
+		this.inventory			= inventory;
+	}
+
+	/**
+	 * A method to get the lowercase name the Player's files are saved under.
+	 *
+	 * @return Returns the Player's name in lowercase.
+	 */
+	public String getFileName() {
+
+		return name.toLowerCase();
+	}
+
+	/**
+	 * A method to encode the snapshot as a record.
+	 *
+	 * @return Returns the whole record.
+	 * @throws IOException Thrown if the record can't be encoded.
+	 */
+	public byte[] encode() throws IOException {
+
+		ByteArrayOutputStream recordBytes	= new ByteArrayOutputStream(256 + discoveredRooms.length +
+																		inventory.length);
+		DataOutputStream recordOut			= new DataOutputStream(recordBytes);
+
+		recordOut.writeInt(MAGIC);
+		recordOut.writeInt(VERSION);
+
+		// The profile
+		recordOut.writeUTF(name);
+		recordOut.writeUTF(title);
+		recordOut.writeUTF(rank);
+		recordOut.writeUTF(shortDescription);
+		recordOut.writeUTF(longDescription);
+		recordOut.writeInt(level);
+		recordOut.writeInt(maxHealth);
+		recordOut.writeInt(maxMana);
+		recordOut.writeInt(currentHealth);
+		recordOut.writeInt(currentMana);
+
+		// The discovered rooms and Inventory were encoded when the snapshot was taken
+		recordOut.writeInt(discoveredRooms.length);
+		recordOut.write(discoveredRooms);
+		recordOut.writeInt(inventory.length);
+		recordOut.write(inventory);
+		recordOut.close();
+
+		return recordBytes.toByteArray();
+	}
+
+	/**
+	 * A method to read a Player's record, from the PlayerStore or, if they aren't in it yet,
+	 * from their own save file.
+	 *
+	 * @param fileName The lowercase name of the Player.
+	 * @return Returns the snapshot the record holds, or null if the Player has no record or
+	 *			was saved in the old text format.
+	 * @throws IOException Thrown if the record can't be read, or is damaged or of an unknown
+	 *			version.
+	 */
+	public static PlayerSnapshot read(String fileName) throws IOException {
+
+		byte[] record = PlayerStore.read(PlayerStore.RECORD, fileName);
+
+		// Not in the store yet, so the whole file comes in with a single read
+		if (record == null) {
+
+			try {
+
+				record = Files.readAllBytes(Paths.get(PLAYER_DIRECTORY + fileName));
+			}
+
+			// Nobody by that name
+			catch (NoSuchFileException e) {
+
+				return null;
+			}
+		}
+
+		return decode(record);
+	}
+
+	/**
+	 * A method to decode a record.
+	 *
+	 * @param record The whole record.
+	 * @return Returns the snapshot the record holds, or null if it's a text profile instead.
+	 * @throws IOException Thrown if the record is damaged or of an unknown version.
+	 */
+	public static PlayerSnapshot decode(byte[] record) throws IOException {
+
+		DataInputStream in	= new DataInputStream(new ByteArrayInputStream(record));
+		int version			= 0;
+
+		// A text profile from before the record existed
+		if (record.length < 8 || in.readInt() != MAGIC) {
+
+			return null;
+		}
+
+		version = in.readInt();
+
+		if (version != VERSION) {
+
+			throw new IOException("Unknown player record version: " + version);
+		}
+
+		// Read in the same order it was written
+		return new PlayerSnapshot(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(),
+								  in.readUTF(), in.readInt(), in.readInt(), in.readInt(),
+								  in.readInt(), in.readInt(), readSection(in), readSection(in));
+	}
+
+	/**
+	 * A method to read one length-prefixed section of a record.
+	 *
+	 * @param in The stream to read from, positioned at the section's length.
+	 * @return Returns the bytes of the section.
+	 * @throws IOException Thrown if the record ends before the section does.
+	 */
+	private static byte[] readSection(DataInputStream in) throws IOException {
+
+		int length = in.readInt();
+
+		// A damaged record mustn't make us allocate more than it holds
+		if (length < 0 || length > in.available()) {
+
+			throw new IOException("Damaged player record section of " + length + " bytes");
+		}
+
+		byte[] section = new byte[length];
+
+		in.readFully(section);
+
+		return section;
+	}
+
+	/**
+	 * A method to get the Player's name.
+	 *
+	 * @return Returns the Player's name, as shown in the game.
+	 */
+	public String getName() {
+
+		return name;
+	}
+
+	/**
+	 * A method to get the Player's title.
+	 *
+	 * @return Returns the Player's title.
+	 */
+	public String getTitle() {
+
+		return title;
+	}
+
+	/**
+	 * A method to get the Player's rank.
+	 *
+	 * @return Returns the Player's rank.
+	 */
+	public String getRank() {
+
+		return rank;
+	}
+
+	/**
+	 * A method to get the Player's short description.
+	 *
+	 * @return Returns the Player's short description.
+	 */
+	public String getShortDescription() {
+
+		return shortDescription;
+	}
+
+	/**
+	 * A method to get the Player's long description.
+	 *
+	 * @return Returns the Player's long description.
+	 */
+	public String getLongDescription() {
+
+		return longDescription;
+	}
+
+	/**
+	 * A method to get the Player's level.
+	 *
+	 * @return Returns the Player's level.
+	 */
+	public int getLevel() {
+
+		return level;
+	}
+
+	/**
+	 * A method to get the Player's maximum health.
+	 *
+	 * @return Returns the Player's maximum health.
+	 */
+	public int getMaxHealth() {
+
+		return maxHealth;
+	}
+
+	/**
+	 * A method to get the Player's maximum mana.
+	 *
+	 * @return Returns the Player's maximum mana.
+	 */
+	public int getMaxMana() {
+
+		return maxMana;
+	}
+
+	/**
+	 * A method to get the Player's current health.
+	 *
+	 * @return Returns the Player's current health.
+	 */
+	public int getCurrentHealth() {
+
+		return currentHealth;
+	}
+
+	/**
+	 * A method to get the Player's current mana.
+	 *
+	 * @return Returns the Player's current mana.
+	 */
+	public int getCurrentMana() {
+
+		return currentMana;
+	}
+
+	/**
+	 * A method to decode the Player's discovered rooms.
+	 *
+	 * @return Returns a new set of the discovered rooms.
+	 * @throws IOException Thrown if the saved set is damaged.
+	 */
+	public DiscoveredRooms getDiscoveredRooms() throws IOException {
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(discoveredRooms));
+
+		if (in.readInt() != DiscoveredRooms.MAGIC) {
+
+			throw new IOException("Damaged discovered rooms in player record");
+		}
+
+		return DiscoveredRooms.load(in);
+	}
+
+	/**
+	 * A method to decode the Player's Items into the given Inventory.
+	 *
+	 * @param oneInventory The Inventory the Items are added to.
+	 * @throws IOException Thrown if the saved Inventory is damaged.
+	 */
+	public void loadInventory(Inventory oneInventory) throws IOException {
+
+		oneInventory.load(new DataInputStream(new ByteArrayInputStream(inventory)));
+	}
+
+	/**
+	 * A method to describe this snapshot.
+	 *
+	 * @return Returns a String with the name of the Player the snapshot is of.
+	 */
+	public String toString() {
+
+		return "Class: PlayerSnapshot\nName: " + name;
+	}
+}
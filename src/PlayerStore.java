@@ -0,0 +1,654 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The PlayerStore class keeps every Player's record and Password in a single file, so
+ *		saving a Player is one append to the end of it and finding out whether a Player exists
+ *		never touches the disk at all.
+ *
+ *	Structure / Process
+ *
+ *		The store is a log: a header, then entries one after another, each of them a Player's
+ *		record or Password. Nothing is ever written over; saving a Player again appends a new
+ *		entry, and the old one is simply superseded. Every entry starts with its length and a
+ *		checksum, so an entry cut short by a crash is found when the store is opened and cut off,
+ *		leaving every entry before it whole.
+ *
+ *		When the store is opened, it's read through once to build an index in memory of where
+ *		each Player's newest record and Password are. Anything asking about a Player looks in
+ *		the index, and reading a record is a single read at the offset the index gives.
+ *		Players saved in files of their own, from before the store, are listed once at the same
+ *		time; they move into the store the next time they're saved.
+ *
+ *		Appends aren't forced to disk one at a time. The PersistenceQueue appends a whole batch
+ *		of saves and then calls sync once for all of them. Once superseded entries take up more
+ *		than half of the store, the PersistenceQueue's thread compacts it: the newest entries
+ *		are copied to a new file, along with anything appended while they were copied, and the
+ *		new file is renamed over the old one in a single step.
+ *
+ *		An entry holds, in order, its length, a CRC32 checksum of the rest, its kind, the
+ *		Player's lowercase name, and the record or Password in its own binary format.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see PersistenceQueue
+ * @see PlayerSnapshot
+ */
+public final class PlayerStore {
+
+	/** The kind of entry holding a Player's record. */
+	public static final byte RECORD		= 1;
+	/** The kind of entry holding a Player's serialized Password. */
+	public static final byte PASSWORD	= 2;
+
+	/** The first four bytes of the store, "JWPS". */
+	private static final int MAGIC		= 0x4A575053;
+	/** The version of the store format. */
+	private static final int VERSION	= 1;
+	/** The length of the header, in bytes. */
+	private static final int HEADER_LENGTH	= 8;
+	/** The length of the length and checksum starting every entry, in bytes. */
+	private static final int ENTRY_HEADER	= 8;
+	/** The largest entry we'll believe a damaged length for, in bytes. */
+	private static final int MAX_ENTRY		= 16 * 1024 * 1024;
+	/** The least superseded space, in bytes, worth compacting away. */
+	private static final long COMPACT_MIN_BYTES	= 1024 * 1024;
+	/** The directory the Players are saved in. */
+	private static final String PLAYER_DIRECTORY	= "../player/";
+	/** The store itself. */
+	private static final String STORE_PATH			= PLAYER_DIRECTORY + "players.store";
+	/** The new store, while it's being compacted. */
+	private static final String COMPACT_PATH		= STORE_PATH + ".compact";
+
+	/** Where the entries are at, offset then length, of each Player's newest record. */
+	private static volatile Map<String, long[]> records		= new ConcurrentHashMap<String, long[]>();
+	/** Where the entries are at, offset then length, of each Player's newest Password. */
+	private static volatile Map<String, long[]> passwords	= new ConcurrentHashMap<String, long[]>();
+	/** The Players still saved in files of their own. */
+	private static HashSet<String> legacy	= new HashSet<String>();
+	/** The open store, or null until open is called. */
+	private static FileChannel store		= null;
+	/** The length of the store, which is where the next entry goes. */
+	private static long size				= 0;
+	/** The bytes taken up by superseded entries. */
+	private static long superseded			= 0;
+
+	/** The private constructor, ensuring this class cannot be instantiated. */
+	private PlayerStore() {
+
+		throw new AssertionError();
+	}
+
+	/**
+	 * A method to open the store, creating it if it doesn't exist, and build the index of
+	 * everything in it. Does nothing if the store is already open.
+	 */
+	public static synchronized void open() {
+
+		if (store != null) {
+
+			return;
+		}
+
+		// Try to open it
+		try {
+
+			store = FileChannel.open(Paths.get(STORE_PATH), StandardOpenOption.CREATE,
+									 StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+			// A brand new store needs its header
+			if (store.size() == 0) {
+
+				writeHeader(store);
+				store.force(true);
+			}
+
+			size		= index(store, records, passwords);
+			superseded	= size - HEADER_LENGTH - liveBytes(records) - liveBytes(passwords);
+
+			// Anything past the last whole entry is a save that never finished
+			if (size < store.size()) {
+
+				System.out.println("Player store cut off after " + size + " bytes; " +
+								   (store.size() - size) + " bytes were never finished.");
+				store.truncate(size);
+				store.force(true);
+			}
+
+			findLegacyPlayers();
+
+			System.out.println("Player store holds " + records.size() + " players in " +
+							   (size / 1024) + "KB (" + (superseded / 1024) + "KB superseded).");
+		}
+
+		// Catch any Exceptions; without the store, nobody can log in
+		catch (IOException e) {
+
+			System.out.println("IOException opening the player store: " + e.getMessage());
+			System.exit(0);
+		}
+
+		compactIfNeeded();
+	}
+
+	/**
+	 * A method to list the Players saved in files of their own, before the store. Only the
+	 * profile file matters; every Player had one.
+	 */
+	private static void findLegacyPlayers() {
+
+		File[] files = (new File(PLAYER_DIRECTORY)).listFiles();
+
+		if (files == null) {
+
+			return;
+		}
+
+		for(File oneFile: files) {
+
+			// Profiles are named for the Player alone; everything else has an ending
+			if (oneFile.isFile() && oneFile.getName().indexOf('.') < 0) {
+
+				legacy.add(oneFile.getName());
+			}
+		}
+	}
+
+	/**
+	 * A method to test whether a Player has been saved.
+	 *
+	 * @param fileName The lowercase name of the Player.
+	 * @return Returns true if the Player has a record or a Password, in the store or in files
+	 *			of their own.
+	 */
+	public static boolean contains(String fileName) {
+
+		return records.containsKey(fileName) || passwords.containsKey(fileName) ||
+			   legacy.contains(fileName);
+	}
+
+	/**
+	 * A method to read a Player's newest entry of the given kind.
+	 *
+	 * @param kind RECORD or PASSWORD.
+	 * @param fileName The lowercase name of the Player.
+	 * @return Returns what the entry holds, or null if the store has no such entry.
+	 * @throws IOException Thrown if the entry can't be read.
+	 */
+	public static synchronized byte[] read(byte kind, String fileName) throws IOException {
+
+		long[] location		= (kind == RECORD ? records : passwords).get(fileName);
+		ByteBuffer entry	= null;
+		DataInputStream in	= null;
+
+		if (location == null) {
+
+			return null;
+		}
+
+		entry = ByteBuffer.allocate((int)location[1]);
+
+		while(entry.hasRemaining()) {
+
+			if (store.read(entry, location[0] + entry.position()) < 0) {
+
+				throw new IOException("Player store ended inside " + fileName + "'s entry");
+			}
+		}
+
+		// Past the length, checksum, kind and name, to what the entry holds
+		in = new DataInputStream(new ByteArrayInputStream(entry.array(), ENTRY_HEADER,
+														  entry.capacity() - ENTRY_HEADER));
+		in.readByte();
+		in.readUTF();
+
+		byte[] payload = new byte[in.available()];
+
+		in.readFully(payload);
+
+		return payload;
+	}
+
+	/**
+	 * A method to append an entry to the end of the store. The entry isn't on the disk until
+	 * sync is called. The store's size and index only take in the entry once the whole of it
+	 * is written; should the write fail partway, what was written is cut off again, so the
+	 * next entry doesn't land after a broken one and get lost with it when the store is
+	 * next opened.
+	 *
+	 * @param kind RECORD or PASSWORD.
+	 * @param fileName The lowercase name of the Player.
+	 * @param payload What the entry holds.
+	 * @throws IOException Thrown if the entry can't be written.
+	 */
+	public static synchronized void append(byte kind, String fileName, byte[] payload)
+																	throws IOException {
+
+		ByteBuffer entry	= encodeEntry(kind, fileName, payload);
+		long start			= size;
+		long end			= start;
+		long[] location		= new long[] { start, entry.remaining() };
+		long[] old			= null;
+
+		// Try to write the whole entry
+		try {
+
+			while(entry.hasRemaining()) {
+
+				end += store.write(entry, end);
+			}
+		}
+
+		// Catch any Exceptions; the part written mustn't stay in the store
+		catch (IOException e) {
+
+			// Try to cut it off; if even that fails, the next entry still goes where this began
+			try {
+
+				store.truncate(start);
+			}
+
+			catch (IOException truncateFailed) {
+
+				System.out.println("IOException truncating the player store: " +
+								   truncateFailed.getMessage());
+			}
+
+			throw e;
+		}
+
+		size	= end;
+		old		= (kind == RECORD ? records : passwords).put(fileName, location);
+
+		if (old != null) {
+
+			superseded += old[1];
+		}
+	}
+
+	/**
+	 * A method to force every entry appended so far to disk. The force is made without holding
+	 * the store, so logins can read it meanwhile; should a compaction swap the store and close
+	 * the old one underneath it, the force is made again on the new store, which holds
+	 * everything the old one did.
+	 *
+	 * @throws IOException Thrown if the store can't be forced.
+	 */
+	public static void sync() throws IOException {
+
+		FileChannel syncing = null;
+
+		while(true) {
+
+			synchronized(PlayerStore.class) {
+
+				syncing = store;
+			}
+
+			// Try to force it; the data is what matters, the file's dates can wait
+			try {
+
+				syncing.force(false);
+				return;
+			}
+
+			// Catch any Exceptions; only a swapped store is worth another try
+			catch (ClosedChannelException e) {
+
+				synchronized(PlayerStore.class) {
+
+					if (store == syncing) {
+
+						throw e;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * A method to compact the store if superseded entries take up more than half of it. Only
+	 * the PersistenceQueue's thread calls this, once it has finished a batch.
+	 */
+	public static void compactIfNeeded() {
+
+		synchronized(PlayerStore.class) {
+
+			if (superseded < COMPACT_MIN_BYTES || superseded * 2 < size) {
+
+				return;
+			}
+		}
+
+		// Try to compact it
+		try {
+
+			compact();
+		}
+
+		// Catch any Exceptions; the old store is still whole
+		catch (IOException e) {
+
+			System.out.println("IOException compacting the player store: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * A method to copy the newest entries to a new store and rename it over the old one. The
+	 * copying is done without holding the store, so saves and logins carry on meanwhile; only
+	 * the entries appended while copying, and the swap itself, hold it.
+	 *
+	 * @throws IOException Thrown if the new store can't be written.
+	 */
+	private static void compact() throws IOException {
+
+		HashMap<String, long[]> liveRecords		= null;
+		HashMap<String, long[]> livePasswords	= null;
+		Map<String, long[]> newRecords			= new ConcurrentHashMap<String, long[]>();
+		Map<String, long[]> newPasswords		= new ConcurrentHashMap<String, long[]>();
+		FileChannel oldStore					= null;
+		long copiedTo							= 0;
+		long newSize							= 0;
+		long oldSize							= 0;
+
+		synchronized(PlayerStore.class) {
+
+			liveRecords		= new HashMap<String, long[]>(records);
+			livePasswords	= new HashMap<String, long[]>(passwords);
+			oldStore		= store;
+			copiedTo		= size;
+			oldSize			= size;
+		}
+
+		Files.deleteIfExists(Paths.get(COMPACT_PATH));
+
+		try (FileChannel compacted = FileChannel.open(Paths.get(COMPACT_PATH),
+													  StandardOpenOption.CREATE_NEW,
+													  StandardOpenOption.READ,
+													  StandardOpenOption.WRITE)) {
+
+			writeHeader(compacted);
+			newSize = HEADER_LENGTH;
+
+			// Entries already in the store never move, so they can be copied while it's in use
+			newSize = copyEntries(oldStore, liveRecords, compacted, newSize, newRecords);
+			newSize = copyEntries(oldStore, livePasswords, compacted, newSize, newPasswords);
+
+			synchronized(PlayerStore.class) {
+
+				// Anything appended since, copied as it is and indexed where it landed
+				oldStore.transferTo(copiedTo, size - copiedTo, compacted.position(newSize));
+				newSize = index(compacted, newSize, newRecords, newPasswords);
+
+				compacted.force(true);
+
+				Files.move(Paths.get(COMPACT_PATH), Paths.get(STORE_PATH),
+						   StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				syncDirectory();
+
+				// From here on the new store is the store
+				store		= FileChannel.open(Paths.get(STORE_PATH), StandardOpenOption.READ,
+											   StandardOpenOption.WRITE);
+				records		= newRecords;
+				passwords	= newPasswords;
+				size		= newSize;
+				superseded	= size - HEADER_LENGTH - liveBytes(records) - liveBytes(passwords);
+
+				oldStore.close();
+			}
+		}
+
+		System.out.println("Player store compacted from " + (oldSize / 1024) + "KB to " +
+						   (newSize / 1024) + "KB.");
+	}
+
+	/**
+	 * A method to copy the given entries to the end of a new store, noting where each lands.
+	 *
+	 * @param from The store being copied.
+	 * @param live Where each entry to be copied is, offset then length.
+	 * @param to The new store.
+	 * @param at Where in the new store the first entry goes.
+	 * @param newIndex Where each entry landed is put here.
+	 * @return Returns where in the new store the next entry goes.
+	 * @throws IOException Thrown if an entry can't be copied.
+	 */
+	private static long copyEntries(FileChannel from, Map<String, long[]> live, FileChannel to,
+									long at, Map<String, long[]> newIndex) throws IOException {
+
+		long copied = 0;
+
+		for(Map.Entry<String, long[]> oneEntry: live.entrySet()) {
+
+			long[] location = oneEntry.getValue();
+
+			copied = 0;
+
+			while(copied < location[1]) {
+
+				copied += from.transferTo(location[0] + copied, location[1] - copied,
+										  to.position(at + copied));
+			}
+
+			newIndex.put(oneEntry.getKey(), new long[] { at, location[1] });
+			at += location[1];
+		}
+
+		return at;
+	}
+
+	/**
+	 * A method to read through a whole store from its header, building its index.
+	 *
+	 * @param from The store.
+	 * @param newRecords Where each Player's newest record is put here.
+	 * @param newPasswords Where each Player's newest Password is put here.
+	 * @return Returns the end of the last whole entry.
+	 * @throws IOException Thrown if the store can't be read, or isn't a store.
+	 */
+	private static long index(FileChannel from, Map<String, long[]> newRecords,
+							  Map<String, long[]> newPasswords) throws IOException {
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+
+		from.read(header, 0);
+		header.flip();
+
+		if (header.remaining() < HEADER_LENGTH || header.getInt() != MAGIC) {
+
+			throw new IOException(STORE_PATH + " isn't a player store");
+		}
+
+		if (header.getInt() != VERSION) {
+
+			throw new IOException("Unknown player store version");
+		}
+
+		return index(from, HEADER_LENGTH, newRecords, newPasswords);
+	}
+
+	/**
+	 * A method to read through a store from the given offset, adding every whole entry to the
+	 * index. An entry which is cut short, or whose checksum is wrong, ends the read.
+	 *
+	 * @param from The store.
+	 * @param at Where the first entry starts.
+	 * @param newRecords Where each Player's newest record is put here.
+	 * @param newPasswords Where each Player's newest Password is put here.
+	 * @return Returns the end of the last whole entry.
+	 * @throws IOException Thrown if the store can't be read.
+	 */
+	private static long index(FileChannel from, long at, Map<String, long[]> newRecords,
+							  Map<String, long[]> newPasswords) throws IOException {
+
+		ByteBuffer entryHeader	= ByteBuffer.allocate(ENTRY_HEADER);
+		ByteBuffer body			= null;
+		CRC32 checksum			= new CRC32();
+		DataInputStream in		= null;
+		long end				= from.size();
+		int length				= 0;
+		byte kind				= 0;
+
+		while(at + ENTRY_HEADER <= end) {
+
+			entryHeader.clear();
+			from.read(entryHeader, at);
+			entryHeader.flip();
+
+			length = entryHeader.getInt();
+
+			// A length no entry could have, or running off the end, was never finished
+			if (length <= 0 || length > MAX_ENTRY || at + ENTRY_HEADER + length > end) {
+
+				break;
+			}
+
+			body = ByteBuffer.allocate(length);
+
+			while(body.hasRemaining()) {
+
+				from.read(body, at + ENTRY_HEADER + body.position());
+			}
+
+			checksum.reset();
+			checksum.update(body.array());
+
+			if ((int)checksum.getValue() != entryHeader.getInt()) {
+
+				break;
+			}
+
+			in		= new DataInputStream(new ByteArrayInputStream(body.array()));
+			kind	= in.readByte();
+
+			(kind == RECORD ? newRecords : newPasswords).put(in.readUTF(),
+											new long[] { at, ENTRY_HEADER + length });
+
+			at += ENTRY_HEADER + length;
+		}
+
+		return at;
+	}
+
+	/**
+	 * A method to add up the space taken by the entries in an index.
+	 *
+	 * @param index Where each entry is, offset then length.
+	 * @return Returns the total length of the entries, in bytes.
+	 */
+	private static long liveBytes(Map<String, long[]> index) {
+
+		long total = 0;
+
+		for(long[] location: index.values()) {
+
+			total += location[1];
+		}
+
+		return total;
+	}
+
+	/**
+	 * A method to put an entry together, ready to be written.
+	 *
+	 * @param kind RECORD or PASSWORD.
+	 * @param fileName The lowercase name of the Player.
+	 * @param payload What the entry holds.
+	 * @return Returns the whole entry.
+	 * @throws IOException Thrown if the entry can't be encoded.
+	 */
+	private static ByteBuffer encodeEntry(byte kind, String fileName, byte[] payload)
+																	throws IOException {
+
+		ByteArrayOutputStream bodyBytes	= new ByteArrayOutputStream(payload.length + 32);
+		DataOutputStream bodyOut		= new DataOutputStream(bodyBytes);
+		CRC32 checksum					= new CRC32();
+		byte[] body						= null;
+		ByteBuffer entry				= null;
+
+		bodyOut.writeByte(kind);
+		bodyOut.writeUTF(fileName);
+		bodyOut.write(payload);
+		bodyOut.close();
+
+		body = bodyBytes.toByteArray();
+		checksum.update(body);
+
+		entry = ByteBuffer.allocate(ENTRY_HEADER + body.length);
+		entry.putInt(body.length);
+		entry.putInt((int)checksum.getValue());
+		entry.put(body);
+		entry.flip();
+
+		return entry;
+	}
+
+	/**
+	 * A method to write the header at the start of a new store.
+	 *
+	 * @param to The new store.
+	 * @throws IOException Thrown if the header can't be written.
+	 */
+	private static void writeHeader(FileChannel to) throws IOException {
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.flip();
+
+		while(header.hasRemaining()) {
+
+			to.write(header, HEADER_LENGTH - header.remaining());
+		}
+	}
+
+	/**
+	 * A method to force the player directory to disk, making a rename in it durable. Not every
+	 * system can force a directory; there, the rename is left to the system to write out.
+	 */
+	private static void syncDirectory() {
+
+		// Try to force it
+		try (FileChannel directory = FileChannel.open(Paths.get(PLAYER_DIRECTORY),
+													  StandardOpenOption.READ)) {
+
+			directory.force(true);
+		}
+
+		// Catch any Exceptions
+		catch (IOException e) {
+
+			// Nothing to report; there's nothing more we can do
+		}
+	}
+
+	/**
+	 * A method to put the class name.
+	 *
+	 * @return Returns a String indicating the class's name.
+	 */
+	public String toString() {
+
+		return "Class: PlayerStore";
+	}
+}
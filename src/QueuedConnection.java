@@ -0,0 +1,224 @@
+import java.io.IOException;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The QueuedConnection class holds everything the Connections of every networking mode
+ *		share: the OutboundQueue their output waits in, with its MCCP state, and the LineAssembler
+ *		their input is decoded by. Each mode only has to say how input is read and how the
+ *		thread writing its output is told there's more.
+ *
+ *	Structure / Process
+ *
+ *		The game thread calls readLine, which first gives the subclass a chance to read through
+ *		readInput, then answers the client's telnet negotiations and starts compression if it
+ *		was asked for, and returns the next complete line. Output is encoded a byte per
+ *		character and offered to the OutboundQueue; whenever something is queued, or the
+ *		Connection is closed or aborted, outputQueued is called so the subclass can wake its
+ *		writer.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Connection
+ * @see OutboundQueue
+ * @see LineAssembler
+ */
+public abstract class QueuedConnection implements Connection {
+
+	/** The output which has been queued but not yet written. */
+	protected OutboundQueue outbound;
+	/** Assembles the bytes read into complete lines. */
+	protected LineAssembler assembler;
+	/** A boolean indicating the Connection should be closed once its output is written. */
+	protected volatile boolean closing;
+	/** A boolean indicating the Connection should be closed without writing its output. */
+	protected volatile boolean aborted;
+	/** A boolean indicating the client has gone away or the Connection has been closed. */
+	protected volatile boolean closed;
+
+	/** A default constructor for a Connection with nothing read or queued yet. */
+	protected QueuedConnection() {
+
+		outbound	= new OutboundQueue(Config.getOutputLimit());
+		assembler	= new LineAssembler();
+		closing		= false;
+		aborted		= false;
+		closed		= false;
+	}
+
+	/**
+	 * A method, called by the game thread before a line is pulled, to read whatever input is
+	 * waiting. Connections whose input is read by another thread have nothing to do here.
+	 *
+	 * @throws IOException Thrown if the connection fails while reading.
+	 */
+	protected void readInput() throws IOException {
+
+	}
+
+	/**
+	 * A method to let whichever thread writes this Connection's output know there's something
+	 * for it to do: output queued, or the Connection closed or aborted.
+	 */
+	protected abstract void outputQueued();
+
+	/**
+	 * A method to pull the next complete line of input, answering the client's telnet
+	 * negotiations along the way. This never waits on the client. Once the Connection is
+	 * closed nothing more is read, but lines already read are still returned.
+	 *
+	 * @return Returns the next complete line or null if none are waiting.
+	 * @throws IOException Thrown if the connection fails while reading.
+	 */
+	public String readLine() throws IOException {
+
+		// An answer to the client's telnet negotiations
+		byte[] reply = null;
+
+		// Nothing more is read from a closed Connection
+		if (!isClosed()) {
+
+			readInput();
+		}
+
+		// Answer whatever the client has negotiated
+		while((reply = assembler.takeReply()) != null) {
+
+			if (outbound.offer(reply)) {
+
+				outputQueued();
+			}
+		}
+
+		// The client has taken us up on compression
+		if (assembler.takeCompressionRequest()) {
+
+			outbound.startCompression();
+			outputQueued();
+		}
+
+		// The next complete line, if there is one
+		return assembler.nextLine();
+	}
+
+	/**
+	 * A method to queue text to be written to the client.
+	 *
+	 * @param text The text to be written.
+	 * @throws IOException Thrown if the Connection has already been closed.
+	 */
+	public void write(String text) throws IOException {
+
+		// Each character is sent as a single byte
+		byte[] bytes = new byte[text.length()];
+
+		for(int i = 0; i < bytes.length; i++) {
+
+			bytes[i] = (byte)text.charAt(i);
+		}
+
+		queue(bytes);
+	}
+
+	/**
+	 * A method to queue a copy of the given bytes to be written to the client.
+	 *
+	 * @param bytes The array holding the bytes to be written.
+	 * @param offset The index of the first byte to be written.
+	 * @param length The number of bytes to be written.
+	 * @throws IOException Thrown if the Connection has already been closed.
+	 */
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+
+		// The caller is free to reuse its array, so we keep our own copy
+		byte[] copy = new byte[length];
+		System.arraycopy(bytes, offset, copy, 0, length);
+
+		queue(copy);
+	}
+
+	/**
+	 * A method to hand the given bytes to the writer. Output offered once the queue is at its
+	 * limit is dropped rather than waited on.
+	 *
+	 * @param bytes The bytes to be written; the array must not be changed afterwards.
+	 * @throws IOException Thrown if the Connection has already been closed.
+	 */
+	private void queue(byte[] bytes) throws IOException {
+
+		// Nobody is listening anymore
+		if (isClosed()) {
+
+			throw new IOException("Connection is closed.");
+		}
+
+		// Queue it, unless it's at the limit, and let the writer know
+		if (outbound.offer(bytes)) {
+
+			outputQueued();
+		}
+	}
+
+	/**
+	 * A method to close the Connection once any queued output has been written.
+	 */
+	public void close() {
+
+		// Nothing more is queued, and a compressed stream is ended
+		outbound.finish();
+
+		closing = true;
+		outputQueued();
+	}
+
+	/**
+	 * A method to close the Connection at once, throwing away any queued output.
+	 */
+	public void abort() {
+
+		aborted = true;
+		outbound.close();
+		outputQueued();
+	}
+
+	/**
+	 * A method to test whether this Connection has asked to be closed.
+	 *
+	 * @return Returns true if the Connection should be closed once its output is written.
+	 */
+	public boolean isClosing() {
+
+		return closing;
+	}
+
+	/**
+	 * A method to test whether this Connection has asked to be closed without its output.
+	 *
+	 * @return Returns true if the Connection should be closed at once.
+	 */
+	public boolean isAborted() {
+
+		return aborted;
+	}
+
+	/**
+	 * A method to get how long the client has been over its output limit.
+	 *
+	 * @return Returns the number of milliseconds the client has been over the limit, or 0.
+	 */
+	public long getOverLimitMillis() {
+
+		return outbound.getOverLimitMillis();
+	}
+
+	/**
+	 * A method to test whether the client has gone away or the Connection has been closed.
+	 *
+	 * @return Returns true if the Connection is closed and false if not.
+	 */
+	public boolean isClosed() {
+
+		return closed;
+	}
+}
@@ -1,6 +1,7 @@
 import java.io.*;
 import java.util.Scanner;
 import java.util.ArrayList;
+import java.util.Vector;
 
 /**
  *<pre>
@@ -30,6 +31,24 @@ public class Room {
 														"../data/mountainTemplate.data",
 														"../data/caveTemplate.data" };
 
+	/** The exit mask bit for a room to the east. */
+	public static final int EAST			= 1;
+	/** The exit mask bit for a room to the west. */
+	public static final int WEST			= 2;
+	/** The exit mask bit for a room to the north. */
+	public static final int NORTH			= 4;
+	/** The exit mask bit for a room to the south. */
+	public static final int SOUTH			= 8;
+	/** The number of different exit masks; room is left in a byte for up and down later. */
+	private static final int EXIT_MASKS		= 16;
+	/** The exits line for every exit mask, rendered once. */
+	private static final String[] EXIT_LINES	= buildExitLines();
+
+	/** The width, in visible characters, the room's view is wrapped to. */
+	private static final int VIEW_WIDTH		= 90;
+	/** The line shown in place of the other players when nobody else is here. */
+	private static final String NO_PLAYERS	= "There are no players in this room.\n";
+
 	/** Final int which represent the FOREST index of the filename Array. */
 	private static final int FOREST		= 0;
 	/** Final int which represent the LAKE index of the filename Array. */
@@ -82,6 +101,17 @@ public class Room {
 	private boolean newRoom;
 	// Declare an Inventory object to hold the room's Inventory
 	private Inventory roomInventory;
+	// Declare a Vector to hold the online Players standing in the room
+	private Vector<Player> roomOccupants;
+	// Declare a byte for which of the neighbouring rooms exist, kept up to date by the World
+	private byte exitMask;
+	// Declare a boolean for whether every neighbour which could exist has been built
+	private boolean exitsComplete;
+	// Declare Strings for the rendered location, exits and description, and the rendered items
+	private String viewHeader;
+	private String viewItems;
+	// Declare an ArrayList for the rendered line of each occupant, in the same order
+	private ArrayList<String> occupantLines;
 	
 	// Default constructor
 	public Room() {
@@ -100,6 +130,15 @@ public class Room {
 		newRoom			= false;
 		// The room's inventory
 		roomInventory	= new Inventory(true);
+		// The room's occupants, nobody yet
+		roomOccupants	= new Vector<Player>();
+		// No exits until the World links its neighbours
+		exitMask		= 0;
+		exitsComplete	= false;
+		// Nothing rendered until somebody looks
+		viewHeader		= null;
+		viewItems		= null;
+		occupantLines	= null;
 	}
 
 	// A parameterized constructor but not a new room	
@@ -119,6 +158,15 @@ public class Room {
 		newRoom			= false;
 		// The room's inventory
 		roomInventory	= new Inventory(true);
+		// The room's occupants, nobody yet
+		roomOccupants	= new Vector<Player>();
+		// No exits until the World links its neighbours
+		exitMask		= 0;
+		exitsComplete	= false;
+		// Nothing rendered until somebody looks
+		viewHeader		= null;
+		viewItems		= null;
+		occupantLines	= null;
 	}
 	
 	// A parameterized constructor for a new room
@@ -138,6 +186,15 @@ public class Room {
 		newRoom			= nRoom;
 		// The room's inventory
 		roomInventory	= new Inventory(true);
+		// The room's occupants, nobody yet
+		roomOccupants	= new Vector<Player>();
+		// No exits until the World links its neighbours
+		exitMask		= 0;
+		exitsComplete	= false;
+		// Nothing rendered until somebody looks
+		viewHeader		= null;
+		viewItems		= null;
+		occupantLines	= null;
 	}
 
 	// Accessor Methods
@@ -146,61 +203,49 @@ public class Room {
 		return newRoom;
 	}
 
-	// A method to get the exits as a String
-    public String getExits(int x, int y) {
-		
-		// The String we'll return
-		String tmp = "Exits: ";
-		// A boolean to test whether there was an exit or not
-		boolean foundExit = false;
-		
-		// If a room exists to the east
-		if (World.checkRoomExists(x + 1, y)) {
-			
-			// The east exit exists
-			tmp += "[East]";
-			// We found an exit
-			foundExit = true;
-		}
+	// A method to build the exits line for every exit mask
+	private static String[] buildExitLines() {
 
-		// If a room exists to the west		
-		if (World.checkRoomExists(x - 1, y)) {
-			
-			// The west exit exists
-			tmp += "[West]";
-			// We found an exit
-			foundExit = true;
-		}
+		String[] lines = new String[EXIT_MASKS];
 
-		// If the room exists to the north
-		if (World.checkRoomExists(x, y + 1)) {
-			
-			// The north exit exists
-			tmp += "[North]";
-			// We found an exit
-			foundExit = true;
-		}
-		
-		//  If the room exists to the south
-		if (World.checkRoomExists(x, y - 1)) {
-			
-			// The south exit exists
-			tmp += "[South]";
-			// We found an exit
-			foundExit = true;
+		for(int mask = 0; mask < EXIT_MASKS; mask++) {
+
+			// Each exit in the order they've always been listed, or none at all
+			lines[mask] = ("Exits: " + ((mask & EAST) != 0 ? "[East]" : "") +
+						   ((mask & WEST) != 0 ? "[West]" : "") +
+						   ((mask & NORTH) != 0 ? "[North]" : "") +
+						   ((mask & SOUTH) != 0 ? "[South]" : "") +
+						   (mask == 0 ? "#rNone.#n" : "") + "\n").intern();
 		}
-		
-		// We didn't find an exit
-		if (!foundExit) {
-			
-			// So we notify them that no exits exist.
-			tmp += "#rNone.#n";
+
+		return lines;
+	}
+
+	// A method to get which of the neighbouring rooms exist, as EAST, WEST, NORTH and SOUTH bits
+	public int getExitMask() {
+
+		// A lazily built neighbour may not have been generated yet
+		if (!exitsComplete) {
+
+			World.generateNeighbours(roomX, roomY);
+			exitsComplete = true;
 		}
-		
-		// Send the built String back
-		return (tmp + "\n");
+
+		return exitMask;
 	}
-    
+
+	// A method to test whether there's a room in the given direction
+	public boolean hasExit(int direction) {
+
+		return (getExitMask() & direction) != 0;
+	}
+
+	// A method to get the exits as a String
+	public String getExits() {
+
+		return EXIT_LINES[getExitMask()];
+	}
+
 	public String getRoomName() {
 		
 		return roomName;
@@ -243,7 +288,7 @@ public class Room {
 		switch(flag) {
 			
 			// And it's new so let's set it
-			case "new": this.newRoom = true; break;
+			case "new": this.newRoom = true; refreshView(); break;
 			// Didn't work
 			default: break;
 		}
@@ -259,7 +304,7 @@ public class Room {
 		switch(flag) {
 			
 			// And it's new so let's remove it
-			case "new": this.newRoom = false; break;
+			case "new": this.newRoom = false; refreshView(); break;
 			// Didn't work
 			default: break;
 		}
@@ -268,31 +313,145 @@ public class Room {
     public void setName(String name) {
 		
 		roomName = name;
+		refreshView();
 	}
 	
     public void setDescription(String description) {
 		
 		roomDescription = description;
+		refreshView();
 	}
 	
     public void addItem(Item item) {
 		
 		roomInventory.addToInventory(item);
+		viewItems = null;
 	}
 	
 	public void removeItem(Item item) {
 		
 		roomInventory.removeFromInventory(item);
+		viewItems = null;
 	}
 
 	// Room Methods
 	// Test whether there are any players in the room  
     public boolean playersInRoom() {
 
-		// Call the Player anyPlayersInRoom method to test
-		return Player.anyPlayersInRoom(roomX, roomY);
+		// Anybody standing here counts
+		return !roomOccupants.isEmpty();
     }
 
+	// A method to get the online Players standing in the room
+	public Vector<Player> getOccupants() {
+
+		return roomOccupants;
+	}
+
+	// A method to add an online Player to the room's occupants
+	public void addOccupant(Player player) {
+
+		// Never count somebody twice
+		if (!roomOccupants.contains(player)) {
+
+			roomOccupants.add(player);
+			occupantLines = null;
+		}
+	}
+
+	// A method to remove a Player from the room's occupants, true if they were here
+	public boolean removeOccupant(Player player) {
+
+		// The rest of the room shifts down, so their lines must be made again
+		if (roomOccupants.remove(player)) {
+
+			occupantLines = null;
+			return true;
+		}
+
+		return false;
+	}
+
+	// A method to note that a room has been built in the given direction
+	public void addExit(int direction) {
+
+		// Only a new exit changes what's shown
+		if ((exitMask & direction) == 0) {
+
+			exitMask |= direction;
+			refreshView();
+		}
+	}
+
+	// A method to throw away the rendered location, exits and description, when one has changed
+	public void refreshView() {
+
+		viewHeader = null;
+	}
+
+	// A method to throw away the rendered occupants, when one of them has changed
+	public void refreshOccupants() {
+
+		occupantLines = null;
+	}
+
+	// A method to get the room as the given player sees it when they look, without the minimap
+	public String getView(Player viewer) {
+
+		// The view, put together for this viewer
+		StringBuilder view		= new StringBuilder();
+		// Whether anybody besides the viewer is here
+		boolean foundPlayer		= false;
+
+		// The location, name, exits and description are the same for everyone
+		if (viewHeader == null) {
+
+			viewHeader = TextLayout.wrap((newRoom ? "#r<NewRoom>#n" : "") + "[#y" + roomX + ", " +
+										 roomY + "#n]: #g" + roomName + "#n\n" + getExits() +
+										 roomDescription + "\n", VIEW_WIDTH);
+		}
+
+		// As is each occupant's line
+		if (occupantLines == null) {
+
+			occupantLines = new ArrayList<String>(roomOccupants.size());
+
+			for(Player onePlayer: roomOccupants) {
+
+				occupantLines.add(TextLayout.wrap("#Y" + onePlayer.getName() +
+												  "#n is standing here, chilling.\n", VIEW_WIDTH));
+			}
+		}
+
+		// And the items lying about
+		if (viewItems == null) {
+
+			viewItems = TextLayout.wrap(getInventory(), VIEW_WIDTH);
+		}
+
+		view.append(viewHeader);
+
+		// Everybody but the viewer themselves
+		for(int i = 0; i < occupantLines.size(); i++) {
+
+			if (roomOccupants.get(i) != viewer) {
+
+				view.append(occupantLines.get(i));
+				foundPlayer = true;
+			}
+		}
+
+		// If there are no players, well, notify of that
+		if (!foundPlayer) {
+
+			view.append(NO_PLAYERS);
+		}
+
+		view.append(viewItems);
+
+		return view.toString();
+	}
+
 	// A method to load each of the dynamic room's values into their ArrayList
     public static void loadDynamicBuildingValues() {
     	
@@ -363,27 +522,33 @@ public class Room {
     // Declare a method to get a random room name from a specified room ArrayList
     public static String getBuildName(int rType) {
     	
+    	return getBuildName(rType, Seed.rand());
+    }
+
+	// A method to get a name for the given room type, chosen by the given number between 0 and 1
+    public static String getBuildName(int rType, double pick) {
+    	
     	String returnValue	= "";
     	int randomPosition	= 0; 
     	
     	switch(rType) {
     		
-			case FOREST:	randomPosition	= (int)(Seed.rand() * forestRoomNames.size());
+			case FOREST:	randomPosition	= (int)(pick * forestRoomNames.size());
 							returnValue		= forestRoomNames.get(randomPosition);
 							break;
-			case LAKE:		randomPosition	= (int)(Seed.rand() * lakeRoomNames.size());
+			case LAKE:		randomPosition	= (int)(pick * lakeRoomNames.size());
 							returnValue		= lakeRoomNames.get(randomPosition);
 							break;
-			case CITY:		randomPosition	= (int)(Seed.rand() * cityRoomNames.size());
+			case CITY:		randomPosition	= (int)(pick * cityRoomNames.size());
 							returnValue		= cityRoomNames.get(randomPosition);
 							break;
-			case PARK:		randomPosition	= (int)(Seed.rand() * parkRoomNames.size());
+			case PARK:		randomPosition	= (int)(pick * parkRoomNames.size());
 							returnValue		= parkRoomNames.get(randomPosition);
 							break;
-			case MOUNTAIN:	randomPosition	= (int)(Seed.rand() * mountainRoomNames.size());
+			case MOUNTAIN:	randomPosition	= (int)(pick * mountainRoomNames.size());
 							returnValue		= mountainRoomNames.get(randomPosition);
 							break;
-			case CAVE:		randomPosition	= (int)(Seed.rand() * caveRoomNames.size());
+			case CAVE:		randomPosition	= (int)(pick * caveRoomNames.size());
 							returnValue		= caveRoomNames.get(randomPosition);
 							break;
 			default: break;    		
@@ -395,27 +560,33 @@ public class Room {
     // Declare a method tog et a random room description from a specified room ArrayList
     public static String getBuildDesc(int rType) {
     	
+    	return getBuildDesc(rType, Seed.rand());
+    }
+
+	// A method to get a description for the given room type, chosen by the given number between 0 and 1
+    public static String getBuildDesc(int rType, double pick) {
+    	
     	String returnValue	= "";
     	int randomPosition	= 0; 
     	
     	switch(rType) {
     		
-			case FOREST:	randomPosition	= (int)(Seed.rand() * forestRoomDesc.size());
+			case FOREST:	randomPosition	= (int)(pick * forestRoomDesc.size());
 							returnValue		= forestRoomDesc.get(randomPosition);
 							break;
-			case LAKE:		randomPosition	= (int)(Seed.rand() * lakeRoomDesc.size());
+			case LAKE:		randomPosition	= (int)(pick * lakeRoomDesc.size());
 							returnValue		= lakeRoomDesc.get(randomPosition);
 							break;
-			case CITY:		randomPosition	= (int)(Seed.rand() * cityRoomDesc.size());
+			case CITY:		randomPosition	= (int)(pick * cityRoomDesc.size());
 							returnValue		= cityRoomDesc.get(randomPosition);
 							break;
-			case PARK:		randomPosition	= (int)(Seed.rand() * parkRoomDesc.size());
+			case PARK:		randomPosition	= (int)(pick * parkRoomDesc.size());
 							returnValue		= parkRoomDesc.get(randomPosition);
 							break;
-			case MOUNTAIN:	randomPosition	= (int)(Seed.rand() * mountainRoomDesc.size());
+			case MOUNTAIN:	randomPosition	= (int)(pick * mountainRoomDesc.size());
 							returnValue		= mountainRoomDesc.get(randomPosition);
 							break;
-			case CAVE:		randomPosition	= (int)(Seed.rand() * caveRoomDesc.size());
+			case CAVE:		randomPosition	= (int)(pick * caveRoomDesc.size());
 							returnValue		= caveRoomDesc.get(randomPosition);
 							break;
 			default: break;    		
@@ -40,6 +40,8 @@ public final class Seed {
 	private static double[] randomList	= new double[10000];
 	/** An int to hold the position in the randomList. */
 	private static int positionInList	= 0;
+	/** A number folded from every double in the seed file, which keys the coordinate hashes. */
+	private static long worldKey		= 0;
 
 	/** A private constructor ensures this class cannot be instantiated. */
 	private Seed() {
@@ -140,6 +142,9 @@ public final class Seed {
 					
 				//	System.out.println("test: " + randomList[i]);
 				}
+				
+				// Every double in the file shapes the lazily generated world
+				worldKey = worldKey * 31 + Double.doubleToLongBits(randomList[i]);
 			}
 			
 			// Close the file
@@ -177,6 +182,47 @@ public final class Seed {
 		return randomList[positionInList++];
 	}
 	
+	/**
+	 * A method to hash a coordinate, along with a salt telling apart the different things
+	 * decided about that coordinate, into a pseudo-random number. The same seed file always
+	 * gives the same number for the same coordinate and salt, no matter when it's asked for.
+	 *
+	 * @param x The X coordinate.
+	 * @param y The Y coordinate.
+	 * @param salt A number which is different for each thing decided about a coordinate.
+	 * @return Returns 64 well-mixed pseudo-random bits.
+	 */
+	public static long coordinateHash(int x, int y, int salt) {
+		
+		long hash = worldKey ^ (x * 0x9E3779B97F4A7C15L) ^ (y * 0xC2B2AE3D27D4EB4FL) ^
+					(salt * 0x165667B19E3779F9L);
+		
+		// Mix the bits thoroughly, so neighbouring coordinates have unrelated hashes
+		hash ^= hash >>> 30;
+		hash *= 0xBF58476D1CE4E5B9L;
+		hash ^= hash >>> 27;
+		hash *= 0x94D049BB133111EBL;
+		hash ^= hash >>> 31;
+		
+		return hash;
+	}
+	
+	/**
+	 * A method to return a pseudo-random number for a coordinate which, unlike rand(), does
+	 * not depend on how many numbers have already been drawn.
+	 *
+	 * @param x The X coordinate.
+	 * @param y The Y coordinate.
+	 * @param salt A number which is different for each thing decided about a coordinate.
+	 * @return Returns a double between 0 (inclusive) and 1 (exclusive).
+	 * @see #coordinateHash(int, int, int)
+	 */
+	public static double rand(int x, int y, int salt) {
+		
+		// The top 53 bits make a double's worth of fraction
+		return (coordinateHash(x, y, salt) >>> 11) * 0x1.0p-53;
+	}
+
 	/** A method which requests the admin to choose whether they want a new seed or not. */
 	public static void promptForSeed() {
 		
@@ -0,0 +1,290 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The SelectorConnectionManager class is the selector networking mode's replacement for the
+ *		ManageSocketConnections accept thread and its blocking Sockets. A single thread accepts,
+ *		reads, and writes every connection through one Selector, so hundreds of clients sitting
+ *		at the login prompt cost nothing more than a little buffered state each.
+ *
+ *	Structure / Process
+ *
+ *		The GameServer opens a non-blocking ServerSocketChannel and starts this class on its own
+ *		thread. Every accepted channel is wrapped in a ChannelConnection and handed to a
+ *		LoginSession. Bytes read are assembled into lines for the game thread to pull, and output
+ *		queued by the game thread is written as each channel becomes writable. The game thread
+ *		never touches a channel's SelectionKey directly; it asks this thread to do so through
+ *		requestWrite.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see GameServer
+ * @see ChannelConnection
+ * @see LoginSession
+ */
+public class SelectorConnectionManager implements Runnable {
+
+	/** The size of the buffer each read is placed into. */
+	private static final int READ_BUFFER_SIZE	= 4096;
+
+	/** The non-blocking channel accepting incoming connections. */
+	private ServerSocketChannel server;
+	/** The single Selector servicing every channel. */
+	private Selector selector;
+	/** The Connections which have output to write or have asked to be closed. */
+	private ConcurrentLinkedQueue<ChannelConnection> pendingWrites;
+	/** The buffer every read is placed into before it is assembled into lines. */
+	private ByteBuffer readBuffer;
+
+	/**
+	 * A parameterized constructor which registers the given server channel with a new
+	 * Selector.
+	 *
+	 * @param server A bound ServerSocketChannel accepting incoming connections.
+	 * @throws IOException Thrown if the Selector cannot be opened or registered with.
+	 */
+	public SelectorConnectionManager(ServerSocketChannel server) throws IOException {
+
+		this.server		= server;
+		selector		= Selector.open();
+		pendingWrites	= new ConcurrentLinkedQueue<ChannelConnection>();
+		readBuffer		= ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+	}
+
+	/**
+	 * A method, safe to call from any thread, to let the selector thread know the given
+	 * Connection has output to write or wants to be closed.
+	 *
+	 * @param connection The Connection with pending output.
+	 */
+	public void requestWrite(ChannelConnection connection) {
+
+		pendingWrites.add(connection);
+		selector.wakeup();
+	}
+
+	/**
+	 * The core of the Thread. Waits on the Selector and services whichever channels are
+	 * ready to be accepted, read, or written.
+	 */
+	public void run() {
+
+		Iterator<SelectionKey> readyKeys = null;
+		SelectionKey oneKey = null;
+
+		// Service the channels for as long as the game runs
+		while(server.isOpen()) {
+
+			// Wait for something to happen
+			try {
+
+				selector.select();
+			}
+
+			// Catch any Exceptions
+			catch (IOException e) {
+
+				System.out.println("IOException in selector: " + e.getMessage());
+				System.exit(0);
+			}
+
+			// Anybody with output waiting wants to hear about writability
+			processPendingWrites();
+
+			readyKeys = selector.selectedKeys().iterator();
+
+			// Go through every channel which is ready
+			while(readyKeys.hasNext()) {
+
+				oneKey = readyKeys.next();
+				readyKeys.remove();
+
+				// The channel may have been closed while we were looking at others
+				if (!oneKey.isValid()) {
+
+					continue;
+				}
+
+				if (oneKey.isAcceptable()) {
+
+					acceptConnection();
+				}
+
+				else {
+
+					if (oneKey.isReadable()) {
+
+						readConnection(oneKey);
+					}
+
+					if (oneKey.isValid() && oneKey.isWritable()) {
+
+						writeConnection(oneKey);
+					}
+				}
+			}
+		}
+	}
+
+	/** A method to accept one incoming connection and begin its login. */
+	private void acceptConnection() {
+
+		SocketChannel channel = null;
+		ChannelConnection connection = null;
+
+		// Try to pull a single connection
+		try {
+
+			channel = server.accept();
+
+			// The connection may have gone away before we got to it
+			if (channel == null) {
+
+				return;
+			}
+
+			channel.configureBlocking(false);
+
+			// Wrap it up and listen for input
+			connection = new ChannelConnection(channel, this);
+			channel.register(selector, SelectionKey.OP_READ, connection);
+		}
+
+		// Catch any Exceptions
+		catch (IOException e) {
+
+			System.out.println("IOException accepting channel: " + e.getMessage());
+			return;
+		}
+
+		// The game loop begins the name and password dialogue
+		LoginSession.addConnection(connection);
+	}
+
+	/**
+	 * A method to read whatever a ready channel has for us.
+	 *
+	 * @param oneKey The SelectionKey of the readable channel.
+	 */
+	private void readConnection(SelectionKey oneKey) {
+
+		ChannelConnection connection = (ChannelConnection)oneKey.attachment();
+		int bytesRead = 0;
+
+		// Try to read from the channel
+		try {
+
+			readBuffer.clear();
+			bytesRead = connection.getChannel().read(readBuffer);
+		}
+
+		// A reset connection is the same as a closed connection
+		catch (IOException e) {
+
+			bytesRead = -1;
+		}
+
+		// The client has gone away
+		if (bytesRead < 0) {
+
+			oneKey.cancel();
+			connection.markClosed();
+
+			// The game loop will want to clean up after them
+			GameScheduler.signalInput();
+			return;
+		}
+
+		// Hand the bytes over to be made into lines
+		readBuffer.flip();
+
+		// And wake the game loop if there's a command to handle
+		if (connection.getAssembler().feed(readBuffer)) {
+
+			GameScheduler.signalInput();
+		}
+	}
+
+	/**
+	 * A method to write a writable channel's queued output.
+	 *
+	 * @param oneKey The SelectionKey of the writable channel.
+	 */
+	private void writeConnection(SelectionKey oneKey) {
+
+		ChannelConnection connection = (ChannelConnection)oneKey.attachment();
+
+		// Try to write everything that's waiting
+		try {
+
+			// Once everything's out, we stop listening for writability
+			if (connection.writePending()) {
+
+				oneKey.interestOps(SelectionKey.OP_READ);
+
+				// And if they've asked to go, now's the time
+				if (connection.isClosing()) {
+
+					oneKey.cancel();
+					connection.markClosed();
+				}
+			}
+		}
+
+		// The client has gone away
+		catch (IOException e) {
+
+			oneKey.cancel();
+			connection.markClosed();
+		}
+	}
+
+	/** A method to register interest in writing for every Connection with pending output. */
+	private void processPendingWrites() {
+
+		ChannelConnection connection = null;
+		SelectionKey oneKey = null;
+
+		while((connection = pendingWrites.poll()) != null) {
+
+			oneKey = connection.getChannel().keyFor(selector);
+
+			// A client which stopped reading is hung up on without waiting for its output
+			if (connection.isAborted()) {
+
+				if (oneKey != null) {
+
+					oneKey.cancel();
+				}
+
+				connection.markClosed();
+				continue;
+			}
+
+			// The channel may already have been closed
+			if (oneKey != null && oneKey.isValid()) {
+
+				oneKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+			}
+		}
+	}
+
+	/**
+	 * A method to put the class name.
+	 *
+	 * @return Returns a String indicating the class's name.
+	 */
+	public String toString() {
+
+		return "Class: SelectorConnectionManager";
+	}
+}
@@ -0,0 +1,91 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The SessionConnection class is the Connection used by the session networking mode. It
+ *		wraps a blocking Socket whose input is read by a thread of its own, which is a virtual
+ *		thread wherever the Java runtime has them, so an idle client costs only a parked thread.
+ *
+ *	Structure / Process
+ *
+ *		The SessionThreadManager starts run on a session thread for each accepted Socket. That
+ *		thread blocks on the Socket, feeds whatever arrives into the LineAssembler and wakes the
+ *		game loop whenever a line is completed. The game thread pulls complete lines through
+ *		readLine, which never blocks, and queues output for the shared StreamWriter.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Connection
+ * @see SessionThreadManager
+ */
+public class SessionConnection extends StreamConnection implements Runnable {
+
+	/** The size of the buffer each read is made into. */
+	private static final int READ_BUFFER_SIZE	= 512;
+
+	/** A reference to the Socket's input stream. */
+	private InputStream socketIn;
+
+	/**
+	 * A parameterized constructor which pulls the input and output streams from the given
+	 * Socket.
+	 *
+	 * @param socket The accepted Socket this Connection wraps.
+	 * @throws IOException Thrown if the Socket's streams cannot be opened.
+	 */
+	public SessionConnection(Socket socket) throws IOException {
+
+		super(socket);
+
+		this.socketIn = socket.getInputStream();
+	}
+
+	/**
+	 * The session thread's loop. Blocks on the Socket until input arrives and hands each
+	 * complete line to the game loop, until the client goes away.
+	 */
+	public void run() {
+
+		// The buffer is only allocated once the session thread is running
+		byte[] buffer	= new byte[READ_BUFFER_SIZE];
+		int read		= 0;
+
+		// Try to read until the client goes away
+		try {
+
+			while((read = socketIn.read(buffer)) >= 0) {
+
+				// Wake the game loop if a line was finished or there's a negotiation to answer
+				if (assembler.feed(ByteBuffer.wrap(buffer, 0, read))) {
+
+					GameScheduler.signalInput();
+				}
+			}
+		}
+
+		// Catch any Exceptions; a reset, or the game thread closing the Socket, ends the read
+		catch (IOException e) {
+
+			// Nothing to report; the client is simply gone
+		}
+
+		// Either way, the client is gone
+		closed = true;
+		GameScheduler.signalInput();
+	}
+
+	/**
+	 * A method to describe this Connection.
+	 *
+	 * @return Returns a String with the remote address of the Socket.
+	 */
+	public String toString() {
+
+		return "Class: SessionConnection\nAddress: " + socket.getRemoteSocketAddress();
+	}
+}
@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The SessionThreadManager class accepts connections for the session networking mode, in
+ *		which every client's input is read by a session thread of its own. Session threads are
+ *		virtual threads when the Java runtime provides them, so thousands of idle clients can
+ *		stay connected without any tuning of thread stacks.
+ *
+ *	Structure / Process
+ *
+ *		A single thread waits on the ServerSocket. Each accepted Socket is wrapped as a
+ *		SessionConnection, handed to a LoginSession and given a session thread to read it. Lines
+ *		read are queued on the SessionConnection and drained by the game loop, both while the
+ *		client logs in and once they're playing.
+ *
+ *		Virtual threads are found through reflection, so the game still builds and runs on a
+ *		runtime without them. There, each session thread is an ordinary daemon thread with a
+ *		small stack instead.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see SessionConnection
+ * @see ManageSocketConnections
+ * @see SelectorConnectionManager
+ */
+public class SessionThreadManager implements Runnable {
+
+	/** The stack size, in bytes, asked for when virtual threads aren't available. */
+	private static final long FALLBACK_STACK_SIZE	= 64 * 1024;
+
+	/** Thread.startVirtualThread, or null if this runtime has no virtual threads. */
+	private static final Method START_VIRTUAL_THREAD	= findVirtualThreads();
+
+	/** The ServerSocket connections are accepted from. */
+	private ServerSocket server;
+
+	/**
+	 * A parameterized constructor with the ServerSocket to accept connections from.
+	 *
+	 * @param server A reference to the primary ServerSocket accepting incoming connections.
+	 */
+	public SessionThreadManager(ServerSocket server) {
+
+		this.server = server;
+
+		// Let the admin know which kind of session threads they're getting
+		System.out.println("Session threads are " +
+						   (START_VIRTUAL_THREAD != null ? "virtual." : "platform threads; " +
+						   "this Java runtime has no virtual threads."));
+	}
+
+	/**
+	 * A method to look up Thread.startVirtualThread.
+	 *
+	 * @return Returns the method, or null if this runtime doesn't have it.
+	 */
+	private static Method findVirtualThreads() {
+
+		// Try to find it
+		try {
+
+			return Thread.class.getMethod("startVirtualThread", Runnable.class);
+		}
+
+		// It's only there from Java 21 on
+		catch (NoSuchMethodException e) {
+
+			return null;
+		}
+	}
+
+	/**
+	 * A method to start the given work on a session thread, which is virtual if it can be.
+	 *
+	 * @param session The work the session thread runs.
+	 */
+	private static void startSessionThread(Runnable session) {
+
+		Thread sessionThread = null;
+
+		// A virtual thread, if we can
+		if (START_VIRTUAL_THREAD != null) {
+
+			// Try to start it
+			try {
+
+				START_VIRTUAL_THREAD.invoke(null, session);
+				return;
+			}
+
+			// Catch any Exceptions; fall back to a platform thread
+			catch (Exception e) {
+
+				System.out.println("Exception starting virtual thread: " + e.getMessage());
+			}
+		}
+
+		sessionThread = new Thread(null, session, "Session", FALLBACK_STACK_SIZE);
+		sessionThread.setDaemon(true);
+		sessionThread.start();
+	}
+
+	/**
+	 * The core of the Thread. Waits for each new connection, gives it a session thread and
+	 * queues it for the game loop to give a LoginSession.
+	 */
+	public void run() {
+
+		SessionConnection connection = null;
+
+		while(true) {
+
+			// Try to pull a single connection
+			try {
+
+				connection = new SessionConnection(server.accept());
+
+				// Anything they type before the game loop greets them waits in the connection
+				startSessionThread(connection);
+				LoginSession.addConnection(connection);
+			}
+
+			// Catch any Exceptions; one bad connection mustn't stop us accepting
+			catch (IOException e) {
+
+				System.out.println("IOException in SessionThreadManager: " + e.getMessage());
+
+				// The ServerSocket itself is gone, so there's nothing left to accept
+				if (server.isClosed()) {
+
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A method to put the class name.
+	 *
+	 * @return Returns a String indicating the class's name.
+	 */
+	public String toString() {
+
+		return "Class: SessionThreadManager";
+	}
+}
@@ -0,0 +1,86 @@
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The SocketConnection class is the Connection used by the classic networking mode. It
+ *		wraps a blocking Socket, its input stream and the queue of output waiting to be sent.
+ *
+ *	Structure / Process
+ *
+ *		A SocketConnection is created by ManageSocketConnections once a Socket has been accepted.
+ *		The game loop polls it for input through readLine, which only reads the bytes the Socket
+ *		reports are available and assembles them into lines, so that neither an idle client nor
+ *		a half typed line ever blocks the game. Output is queued for the shared StreamWriter, so
+ *		neither does a client which has stopped reading.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Connection
+ * @see ManageSocketConnections
+ * @see StreamWriter
+ */
+public class SocketConnection extends StreamConnection {
+
+	/** A reference to the Socket's input stream. */
+	private InputStream socketIn;
+	/** The bytes read from the Socket, reused for every read. */
+	private byte[] readBuffer;
+
+	/**
+	 * A parameterized constructor which pulls the input and output streams from the given
+	 * Socket.
+	 *
+	 * @param socket The accepted Socket this Connection wraps.
+	 * @throws IOException Thrown if the Socket's streams cannot be opened.
+	 */
+	public SocketConnection(Socket socket) throws IOException {
+
+		super(socket);
+
+		this.socketIn	= socket.getInputStream();
+		this.readBuffer	= new byte[1024];
+	}
+
+	/**
+	 * A method to read whatever input is waiting on the Socket into the LineAssembler. This
+	 * never waits on the client; a partly typed line is kept until the rest of it arrives.
+	 *
+	 * @throws IOException Thrown if the Socket fails while reading.
+	 */
+	protected void readInput() throws IOException {
+
+		// The number of bytes we can read without blocking
+		int waiting	= socketIn.available();
+		int read	= 0;
+
+		// If there's something to be read from the socket
+		if (waiting > 0) {
+
+			if (waiting > readBuffer.length) {
+
+				waiting = readBuffer.length;
+			}
+
+			read = socketIn.read(readBuffer, 0, waiting);
+
+			if (read > 0) {
+
+				assembler.feed(ByteBuffer.wrap(readBuffer, 0, read));
+			}
+		}
+	}
+
+	/**
+	 * A method to describe this Connection.
+	 *
+	 * @return Returns a String with the remote address of the Socket.
+	 */
+	public String toString() {
+
+		return "Class: SocketConnection\nAddress: " + socket.getRemoteSocketAddress();
+	}
+}
@@ -0,0 +1,140 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The StreamConnection class is the part shared by the Connections wrapped around a
+ *		blocking Socket, in the classic and session networking modes. Their output is written by
+ *		the shared StreamWriter threads, so a connected client never costs a writer thread of
+ *		its own.
+ *
+ *	Structure / Process
+ *
+ *		Whenever output is queued, or the Connection is closed or aborted, it asks the
+ *		StreamWriter for a turn. On its turn, a writer thread calls writePending, which writes
+ *		the oldest queued buffers up to a budget, and hangs up through markClosed once a closing
+ *		Connection's queue is empty, an aborted one is seen, or the Socket fails. Aborting also
+ *		closes the Socket right away, which frees a writer blocked on a client that has stopped
+ *		reading.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see StreamWriter
+ * @see SocketConnection
+ * @see SessionConnection
+ */
+public abstract class StreamConnection extends QueuedConnection {
+
+	/** A reference to the accepted Socket. */
+	protected Socket socket;
+	/** A reference to the Socket's output stream. */
+	private OutputStream socketOut;
+	/** A boolean indicating a turn has been asked for; only touched with the StreamWriter's lock held. */
+	boolean writeRequested;
+
+	/**
+	 * A parameterized constructor which pulls the output stream from the given Socket.
+	 *
+	 * @param socket The accepted Socket this Connection wraps.
+	 * @throws IOException Thrown if the Socket's output stream cannot be opened.
+	 */
+	protected StreamConnection(Socket socket) throws IOException {
+
+		this.socket		= socket;
+		this.socketOut	= socket.getOutputStream();
+		writeRequested	= false;
+	}
+
+	/** A method to ask the StreamWriter for a turn. */
+	protected void outputQueued() {
+
+		StreamWriter.requestWrite(this);
+	}
+
+	/**
+	 * A method, called by a writer thread, to write the oldest queued buffers until the queue
+	 * is empty or the budget is spent. Only one writer thread works on a Connection at a time.
+	 *
+	 * @param budget The number of bytes after which no further buffer is started.
+	 * @return Returns true if the queue was emptied and false if output is still waiting.
+	 * @throws IOException Thrown if the Socket fails while writing.
+	 */
+	public boolean writePending(int budget) throws IOException {
+
+		ByteBuffer oneBuffer	= null;
+		int written				= 0;
+
+		// Write until we run out of output or our turn is over
+		while(written < budget && (oneBuffer = outbound.peek()) != null) {
+
+			socketOut.write(oneBuffer.array(), oneBuffer.position(), oneBuffer.remaining());
+			written += oneBuffer.remaining();
+
+			outbound.remove();
+		}
+
+		return outbound.isEmpty();
+	}
+
+	/**
+	 * A method to test whether there's queued output, or a close, waiting on a writer.
+	 *
+	 * @return Returns true if the Connection needs another turn.
+	 */
+	public boolean needsWrite() {
+
+		return !socket.isClosed() && (!outbound.isEmpty() || closing || aborted);
+	}
+
+	/**
+	 * A method to close the Socket at once, throwing away any queued output.
+	 */
+	public void abort() {
+
+		super.abort();
+
+		// Try to close it; a writer blocked on it gives up as soon as we do
+		try {
+
+			socket.close();
+		}
+
+		// Catch any Exceptions
+		catch (IOException e) {
+
+			System.out.println("IOException closing socket: " + e.getMessage());
+		}
+	}
+
+	/** A method, called by a writer thread, to hang up; this also ends a session thread's read. */
+	public void markClosed() {
+
+		closed = true;
+
+		// Try to close the Socket
+		try {
+
+			socket.close();
+		}
+
+		// Catch any Exceptions
+		catch (IOException e) {
+
+			System.out.println("IOException closing socket: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * A method to test whether the client has gone away or the Connection has been closed.
+	 *
+	 * @return Returns true if the Connection is closed and false if not.
+	 */
+	public boolean isClosed() {
+
+		return closed || closing || aborted || socket.isClosed();
+	}
+}
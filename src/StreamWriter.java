@@ -0,0 +1,225 @@
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The StreamWriter class writes the output of every blocking Socket, in the classic and
+ *		session networking modes, on a small, fixed set of writer threads, so that neither the
+ *		game thread nor the number of clients decides how many threads are writing.
+ *
+ *	Structure / Process
+ *
+ *		A StreamConnection with something to write asks for a turn through requestWrite, which
+ *		puts it on the end of the ready list unless it's already there or being written. Each
+ *		writer thread takes the Connection at the front of the list and writes up to TURN_BYTES
+ *		of its output, then puts it back on the end if there's more, so a client being sent a
+ *		lot doesn't hold up the others. A Connection is only ever on the list once, so no two
+ *		writers touch the same Socket.
+ *
+ *		A Socket's write blocks while the client isn't reading and its buffers are full. There
+ *		are WRITER_THREADS writers so one such client can't stop everybody's output, and the game
+ *		loop calls abortStalled, which hangs up on any client whose write has been blocked for
+ *		longer than STALL_MILLIS, freeing its writer.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see StreamConnection
+ * @see OutboundQueue
+ */
+public final class StreamWriter implements Runnable {
+
+	/** The number of writer threads shared by every Socket. */
+	public static final int WRITER_THREADS	= 4;
+	/** The number of bytes after which a writer moves on to the next Connection. */
+	private static final int TURN_BYTES		= 16 * 1024;
+	/** The longest, in milliseconds, a single write may block before the client is dropped. */
+	private static final long STALL_MILLIS	= 5000;
+
+	/** The Connections waiting for a turn, in the order they asked. */
+	private static final ArrayDeque<StreamConnection> ready = new ArrayDeque<StreamConnection>();
+	/** The writers, once started. */
+	private static StreamWriter[] writers	= null;
+
+	/** The Connection this writer is writing to, or null if it's waiting for one. */
+	private volatile StreamConnection current;
+	/** The time, in milliseconds, this writer's current turn began, or 0 between turns. */
+	private volatile long writingSince;
+
+	/** The private constructor ensures only this class makes the writers. */
+	private StreamWriter() {
+
+		current			= null;
+		writingSince	= 0;
+	}
+
+	/**
+	 * A method to give the given Connection a turn, unless it already has one coming. The
+	 * writers are started the first time a turn is asked for.
+	 *
+	 * @param connection The Connection with output, or a close, waiting.
+	 */
+	public static void requestWrite(StreamConnection connection) {
+
+		Thread writerThread = null;
+
+		synchronized(ready) {
+
+			if (writers == null) {
+
+				writers = new StreamWriter[WRITER_THREADS];
+
+				for(int i = 0; i < writers.length; i++) {
+
+					writers[i]		= new StreamWriter();
+					writerThread	= new Thread(writers[i], "StreamWriter");
+
+					// Output still waiting mustn't keep the game from exiting
+					writerThread.setDaemon(true);
+					writerThread.start();
+				}
+			}
+
+			// Already on the list, or being written, in which case it goes back on afterwards
+			if (connection.writeRequested) {
+
+				return;
+			}
+
+			connection.writeRequested = true;
+			ready.add(connection);
+			ready.notify();
+		}
+	}
+
+	/**
+	 * A method, called from the game loop, to hang up on any client whose write has been
+	 * blocked for longer than STALL_MILLIS.
+	 */
+	public static void abortStalled() {
+
+		StreamWriter[] all		= null;
+		StreamConnection stuck	= null;
+		long since				= 0;
+		long now				= System.currentTimeMillis();
+
+		synchronized(ready) {
+
+			all = writers;
+		}
+
+		// Nothing has been written yet
+		if (all == null) {
+
+			return;
+		}
+
+		for(StreamWriter oneWriter: all) {
+
+			since = oneWriter.writingSince;
+			stuck = oneWriter.current;
+
+			if (stuck != null && since != 0 && now - since > STALL_MILLIS && !stuck.isAborted()) {
+
+				System.out.println("Client " + stuck.socket.getRemoteSocketAddress() +
+								   " isn't reading its output. Disconnecting.");
+				stuck.abort();
+			}
+		}
+	}
+
+	/** The writer's loop; give each Connection which asks a turn, forever. */
+	public void run() {
+
+		StreamConnection connection = null;
+
+		while(true) {
+
+			synchronized(ready) {
+
+				// Wait for somebody to write to
+				while(ready.isEmpty()) {
+
+					try {
+
+						ready.wait();
+					}
+
+					// Catch any Exceptions
+					catch (InterruptedException e) {
+
+						System.out.println("InterruptedException in StreamWriter: " + e.getMessage());
+					}
+				}
+
+				connection = ready.poll();
+			}
+
+			writeTurn(connection);
+
+			synchronized(ready) {
+
+				// Output queued during the turn asked for nothing, since the turn wasn't over
+				if (connection.needsWrite()) {
+
+					ready.add(connection);
+					ready.notify();
+				}
+
+				else {
+
+					connection.writeRequested = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A method to write one turn's worth of a Connection's output, hanging up if it's done
+	 * with, aborted or broken.
+	 *
+	 * @param connection The Connection whose turn it is.
+	 */
+	private void writeTurn(StreamConnection connection) {
+
+		// Thrown away; just hang up
+		if (connection.isAborted()) {
+
+			connection.markClosed();
+			return;
+		}
+
+		current			= connection;
+		writingSince	= System.currentTimeMillis();
+
+		// Try to write its share
+		try {
+
+			// Everything's sent and nothing more is coming
+			if (connection.writePending(TURN_BYTES) && connection.isClosing()) {
+
+				connection.markClosed();
+			}
+		}
+
+		// Catch any Exceptions; either way the client is gone
+		catch (IOException e) {
+
+			connection.markClosed();
+		}
+
+		writingSince	= 0;
+		current			= null;
+	}
+
+	/**
+	 * A method to put the class name.
+	 *
+	 * @return Returns a String indicating the class's name.
+	 */
+	public String toString() {
+
+		return "Class: StreamWriter";
+	}
+}
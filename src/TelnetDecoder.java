@@ -0,0 +1,223 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The TelnetDecoder class strips telnet commands out of a client's input one byte at a time
+ *		and answers the negotiations the client starts. Clients such as MUD clients and the telnet
+ *		program itself open with a handful of WILL and DO requests, and a client left waiting for
+ *		an answer may hold back options or resend them.
+ *
+ *	Structure / Process
+ *
+ *		Every byte the LineAssembler reads passes through decode, which returns the byte if it's
+ *		ordinary input or DECODED_COMMAND if it was part of a telnet command. Commands may be
+ *		split across reads; the decoder remembers where it is between them and allocates nothing
+ *		but the occasional reply.
+ *
+ *		The only option the game agrees to is COMPRESS2, which it offers itself. A client's DO
+ *		COMPRESS2 is noted for the game thread to start compression, unless compression has been
+ *		turned off, in which case it's refused like any other. Any other DO is refused with WONT
+ *		and any WILL with DONT. WONT and DONT are never answered, since every option
+ *		is already off, which keeps the two sides from answering each other forever.
+ *		Subnegotiations are skipped whole.
+ *
+ *		Only the thread reading the connection may call decode. The replies are queued for the
+ *		game thread to send, as is the request for compression.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see LineAssembler
+ * @see Mccp
+ */
+public class TelnetDecoder {
+
+	/** A constant int returned by decode for a byte that was part of a telnet command. */
+	public static final int DECODED_COMMAND	= -1;
+
+	/** A constant int for reading ordinary input. */
+	private static final int TELNET_DATA		= 0;
+	/** A constant int for having just read an IAC. */
+	private static final int TELNET_IAC			= 1;
+	/** A constant int for waiting on the option of a WILL, WONT, DO or DONT. */
+	private static final int TELNET_OPTION		= 2;
+	/** A constant int for reading a subnegotiation. */
+	private static final int TELNET_SUB			= 3;
+	/** A constant int for having just read an IAC within a subnegotiation. */
+	private static final int TELNET_SUB_IAC		= 4;
+
+	/** Where we are in any telnet command being read. */
+	private int telnetState;
+	/** The WILL, WONT, DO or DONT whose option is being waited on. */
+	private int telnetVerb;
+	/** A boolean indicating the client has asked for compressed output. */
+	private volatile boolean compressionRequested;
+	/** The answers to the client's negotiations, waiting to be sent. */
+	private ConcurrentLinkedQueue<byte[]> replies;
+
+	/** A default constructor for a decoder reading ordinary input. */
+	public TelnetDecoder() {
+
+		telnetState				= TELNET_DATA;
+		telnetVerb				= 0;
+		compressionRequested	= false;
+		replies					= new ConcurrentLinkedQueue<byte[]>();
+	}
+
+	/**
+	 * A method to decode one byte of input.
+	 *
+	 * @param c The byte read, from 0 to 255.
+	 * @return Returns the byte if it's ordinary input, or DECODED_COMMAND if it belonged to a
+	 *			telnet command.
+	 */
+	public int decode(int c) {
+
+		switch(telnetState) {
+
+			case TELNET_DATA:
+
+				// Ordinary input
+				if (c != Mccp.IAC) {
+
+					return c;
+				}
+
+				telnetState = TELNET_IAC;
+				break;
+
+			case TELNET_IAC:
+
+				// A command with an option to follow
+				if (c >= Mccp.WILL && c <= Mccp.DONT) {
+
+					telnetVerb	= c;
+					telnetState	= TELNET_OPTION;
+				}
+
+				else if (c == Mccp.SB) {
+
+					telnetState = TELNET_SUB;
+				}
+
+				// IAC IAC is a literal 255, which is input like any other
+				else if (c == Mccp.IAC) {
+
+					telnetState = TELNET_DATA;
+					return c;
+				}
+
+				// The rest are a single byte, and none of them matter to us
+				else {
+
+					telnetState = TELNET_DATA;
+				}
+
+				break;
+
+			case TELNET_OPTION:
+				telnetState = TELNET_DATA;
+				negotiate(telnetVerb, c);
+				break;
+
+			case TELNET_SUB:
+
+				if (c == Mccp.IAC) {
+
+					telnetState = TELNET_SUB_IAC;
+				}
+
+				break;
+
+			case TELNET_SUB_IAC:
+
+				// IAC SE ends it; anything else is still part of it
+				telnetState = (c == Mccp.SE) ? TELNET_DATA : TELNET_SUB;
+				break;
+
+			default:
+				telnetState = TELNET_DATA;
+				break;
+		}
+
+		return DECODED_COMMAND;
+	}
+
+	/**
+	 * A method to answer one WILL, WONT, DO or DONT from the client.
+	 *
+	 * @param verb The WILL, WONT, DO or DONT.
+	 * @param option The option it's about.
+	 */
+	private void negotiate(int verb, int option) {
+
+		// They'd like compression, which we offered unless it's turned off
+		if (verb == Mccp.DO && option == Mccp.COMPRESS2 && Config.getCompression()) {
+
+			compressionRequested = true;
+		}
+
+		// We won't do anything else
+		else if (verb == Mccp.DO) {
+
+			replies.add(new byte[] {(byte)Mccp.IAC, (byte)Mccp.WONT, (byte)option});
+		}
+
+		// And we don't want them to do anything
+		else if (verb == Mccp.WILL) {
+
+			replies.add(new byte[] {(byte)Mccp.IAC, (byte)Mccp.DONT, (byte)option});
+		}
+
+		// WONT and DONT agree with what we already have, so they get no answer
+	}
+
+	/**
+	 * A method to test whether there's something for the game thread to see to, either a reply
+	 * to send or a request for compression.
+	 *
+	 * @return Returns true if takeReply or takeCompressionRequest has something to give.
+	 */
+	public boolean hasPending() {
+
+		return compressionRequested || !replies.isEmpty();
+	}
+
+	/**
+	 * A method, for the game thread, to take the next answer waiting to be sent to the client.
+	 *
+	 * @return Returns the bytes of the answer, or null if there are none.
+	 */
+	public byte[] takeReply() {
+
+		return replies.poll();
+	}
+
+	/**
+	 * A method, for the game thread, to find out whether the client has asked for compressed
+	 * output since it last checked.
+	 *
+	 * @return Returns true once for each time the client asked.
+	 */
+	public boolean takeCompressionRequest() {
+
+		if (compressionRequested) {
+
+			compressionRequested = false;
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * A method to describe this decoder.
+	 *
+	 * @return Returns a String with the decoder's state and the number of replies waiting.
+	 */
+	public String toString() {
+
+		return "Class: TelnetDecoder\nState: " + telnetState + "\nReplies: " + replies.size();
+	}
+}
@@ -0,0 +1,271 @@
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The TextLayout class lays out text for the player's screen: it wraps paragraphs to a fixed
+ *		width and sets two blocks of text side by side, such as the minimap beside the room's
+ *		description. Color codes take up no room on the screen, so they never count toward a
+ *		line's width.
+ *
+ *	Structure / Process
+ *
+ *		Both layouts make a single pass over their text, appending to one StringBuilder, so the
+ *		work grows only with the length of the text. Wrapping breaks a line at its last space, or
+ *		mid-word if a single word is wider than the line. Placing columns side by side walks
+ *		both blocks a line at a time, padding the left column to its width once it runs out.
+ *
+ *		A color code is a # followed by any of the letters TextManipulator turns into color,
+ *		uppercase or lowercase, the same everywhere text is measured.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see TextManipulator
+ */
+public final class TextLayout {
+
+	/** The private constructor, ensuring this class cannot be instantiated. */
+	private TextLayout() {
+
+		throw new AssertionError();
+	}
+
+	/**
+	 * A method to test whether a color code begins at the given position.
+	 *
+	 * @param text The text being laid out.
+	 * @param i The position to test.
+	 * @return Returns true if a # and a color code letter are at i.
+	 */
+	private static boolean colorCodeAt(CharSequence text, int i) {
+
+		return text.charAt(i) == '#' && i + 1 < text.length() &&
+			   TextManipulator.isColorCode(text.charAt(i + 1));
+	}
+
+	/**
+	 * A method to measure how wide part of a line is on the screen.
+	 *
+	 * @param text The text holding the line.
+	 * @param start The position the part begins at.
+	 * @param end The position just past the end of the part.
+	 * @return Returns the number of characters shown, leaving out color codes and carriage
+	 *			returns.
+	 */
+	public static int visibleLength(CharSequence text, int start, int end) {
+
+		int length = 0;
+
+		for(int i = start; i < end; i++) {
+
+			// Color takes up no room
+			if (colorCodeAt(text, i)) {
+
+				i++;
+			}
+
+			else if (text.charAt(i) != '\r') {
+
+				length++;
+			}
+		}
+
+		return length;
+	}
+
+	/**
+	 * A method to word wrap the given text so that no line is wider than the given width.
+	 *
+	 * @param text The text to be wrapped; its own newlines are kept.
+	 * @param width The most characters shown on one line.
+	 * @return Returns the wrapped text.
+	 */
+	public static String wrap(String text, int width) {
+
+		// The wrapped text, with a little room for the newlines we add
+		StringBuilder wrapped	= new StringBuilder(text.length() + text.length() / width + 1);
+		// The characters shown so far on the current line
+		int lineWidth			= 0;
+		// Where in wrapped the current line's last space is, or -1 if it has none
+		int lastSpace			= -1;
+		// The characters shown on the current line up to and including that space
+		int widthAtSpace		= 0;
+		char c					= 0;
+
+		for(int i = 0; i < text.length(); i++) {
+
+			c = text.charAt(i);
+
+			// Color goes straight through
+			if (colorCodeAt(text, i)) {
+
+				wrapped.append(c).append(text.charAt(++i));
+				continue;
+			}
+
+			// The text's own line breaks start a fresh line
+			if (c == '\n') {
+
+				wrapped.append(c);
+				lineWidth	= 0;
+				lastSpace	= -1;
+				continue;
+			}
+
+			// And carriage returns take up no room
+			if (c == '\r') {
+
+				wrapped.append(c);
+				continue;
+			}
+
+			// The line is full, so it has to break before this character
+			if (lineWidth == width) {
+
+				// A space right at the break is simply dropped
+				if (c == ' ') {
+
+					wrapped.append('\n');
+					lineWidth	= 0;
+					lastSpace	= -1;
+					continue;
+				}
+
+				// Otherwise the line breaks at its last space, carrying the last word down
+				if (lastSpace >= 0) {
+
+					wrapped.setCharAt(lastSpace, '\n');
+					lineWidth -= widthAtSpace;
+				}
+
+				// Or, if it's all one word, right here
+				else {
+
+					wrapped.append('\n');
+					lineWidth = 0;
+				}
+
+				lastSpace = -1;
+			}
+
+			wrapped.append(c);
+			lineWidth++;
+
+			if (c == ' ') {
+
+				lastSpace		= wrapped.length() - 1;
+				widthAtSpace	= lineWidth;
+			}
+		}
+
+		return wrapped.toString();
+	}
+
+	/**
+	 * A method to set two blocks of text side by side. The left block is a fixed width
+	 * column, such as a map, whose width is that of its first line; the right block is
+	 * placed a tab beyond it. Lines of either block end at a newline, and any carriage
+	 * returns are dropped, since every line of the result ends with a newline and a
+	 * carriage return.
+	 *
+	 * @param left The fixed width left column.
+	 * @param right The text placed beside it.
+	 * @return Returns the two columns as a single block of text.
+	 */
+	public static String columns(String left, String right) {
+
+		// The two columns, about as long as both blocks together
+		StringBuilder columns	= new StringBuilder(left.length() + right.length() + 64);
+		// The first line's end tells us how wide the left column is
+		int firstLineEnd		= left.indexOf('\n');
+		int leftWidth			= visibleLength(left, 0, firstLineEnd < 0 ? left.length() : firstLineEnd);
+		// Where the next line of each block begins
+		int leftAt				= skipCarriageReturns(left, 0);
+		int rightAt				= skipCarriageReturns(right, 0);
+		// Where the current line of each block ends
+		int leftEnd				= 0;
+		int rightEnd			= 0;
+
+		// So long as there's at least one line from either column to write
+		while(leftAt < left.length() || rightAt < right.length()) {
+
+			leftEnd		= lineEnd(left, leftAt);
+			rightEnd	= lineEnd(right, rightAt);
+
+			// The left column's line, or blank space once it has run out
+			if (leftAt < left.length()) {
+
+				columns.append(left, leftAt, leftEnd);
+			}
+
+			else {
+
+				for(int i = 0; i < leftWidth; i++) {
+
+					columns.append(' ');
+				}
+			}
+
+			columns.append('\t');
+			columns.append(right, rightAt, rightEnd);
+			columns.append("\n\r");
+
+			// On to the next line of each
+			leftAt	= skipCarriageReturns(left, Math.min(leftEnd + 1, left.length()));
+			rightAt	= skipCarriageReturns(right, Math.min(rightEnd + 1, right.length()));
+		}
+
+		return columns.toString();
+	}
+
+	/**
+	 * A method to find where the line beginning at the given position ends.
+	 *
+	 * @param text The text holding the line.
+	 * @param start The position the line begins at.
+	 * @return Returns the position of the line's newline, or the end of the text, less any
+	 *			carriage returns just before it.
+	 */
+	private static int lineEnd(String text, int start) {
+
+		int end = text.indexOf('\n', start);
+
+		if (end < 0) {
+
+			end = text.length();
+		}
+
+		while(end > start && text.charAt(end - 1) == '\r') {
+
+			end--;
+		}
+
+		return end;
+	}
+
+	/**
+	 * A method to step over any carriage returns at the start of a line.
+	 *
+	 * @param text The text holding the line.
+	 * @param start The position the line begins at.
+	 * @return Returns the position of the line's first other character.
+	 */
+	private static int skipCarriageReturns(String text, int start) {
+
+		while(start < text.length() && text.charAt(start) == '\r') {
+
+			start++;
+		}
+
+		return start;
+	}
+
+	/**
+	 * A method to put the class name.
+	 *
+	 * @return Returns a String indicating the class's name.
+	 */
+	public String toString() {
+
+		return "Class: TextLayout";
+	}
+}
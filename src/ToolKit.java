@@ -1,3 +1,4 @@
+import java.util.Random;
 import java.util.StringTokenizer;
 
 /**
@@ -57,8 +58,22 @@ public final class ToolKit {
 	 */
     public static int rand(int lower, int upper) {
         
+        return rand(null, lower, upper);
+    }
+
+	/**
+	 * A method used to pull a random number between an upper and lower bound from the
+	 * given generator, so that a seeded generator gives the same numbers every time.
+	 *
+	 * @param rng The generator to draw from, or null to draw from Math.random.
+	 * @param lower The lower bound of the random number.
+	 * @param upper The upper bound of the random number.
+	 * @return Returns an int between lower and upper.
+	 */
+    public static int rand(Random rng, int lower, int upper) {
+        
         // Get the random number
-        double rNum = Math.random() * upper;
+        double rNum = (rng == null ? Math.random() : rng.nextDouble()) * upper;
         
         // If it's below the lower bound
         if (rNum < lower) {
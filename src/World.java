@@ -1,6 +1,10 @@
 // Import our packages
 import java.util.Scanner;
 import java.util.ArrayList;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
@@ -19,6 +23,17 @@ import java.io.FileOutputStream;
  *		In the GameServer class, the World class is used to initially load the HOMELOCATION and it's
  *		surrounding rooms from a flat file. Then the World class is called to dynamically generate
  *		the surrounding world using the pseudo-random Seed class.
+ *
+ *		Rooms are stored sparsely, in square chunks of CHUNK_SIZE by CHUNK_SIZE rooms which are
+ *		only created once a room inside them exists. Chunks are kept in a map keyed by their packed
+ *		chunk coordinates, so the world may extend in any direction, including into negative
+ *		coordinates, and only costs memory where there are rooms.
+ *
+ *		In the lazy generation mode nothing is built at startup. Instead, the first time any
+ *		room in a chunk is asked for, whether by a Player moving or by a map being drawn, the
+ *		whole chunk is generated. Every decision about a room is made by hashing its coordinates
+ *		with the seed, so a given seed always produces the same room, and the same Items, at a
+ *		given coordinate no matter in what order the world is explored.
  *</pre>
  * @author Nicholas Warner
  * @version 5.1, June 2015
@@ -27,8 +42,14 @@ public class World {
 	
 	/** The starting zone flat file. */
     public static final String ZONEFILE		= "../zones/StartingZone.zone";
-	/** The maximum number of x rooms and y rooms (MAXROOMS^2 for max number of rooms). */
+	/** The default number of rooms built when the world is built at startup. */
     public static final int MAXROOMS		= 200;
+	/** The width and height, in rooms, of one chunk of the world. */
+	public static final int CHUNK_SIZE		= 16;
+	/** The number of bits to shift a coordinate by to find its chunk coordinate. */
+	private static final int CHUNK_SHIFT	= 4;
+	/** The mask which finds a coordinate's position within its chunk. */
+	private static final int CHUNK_MASK		= CHUNK_SIZE - 1;
     /** The home location of (100, 100), safety! */
 	public static final int HOMELOCATION   	= 100;
 
@@ -65,8 +86,31 @@ public class World {
 	 */
 	private final int MAX_QUEUED_ROOMS	= 200;
 
-	/** This is the actual "world"; a 2D array of Rooms. */
-	private static Room[][] rooms = new Room[MAXROOMS][MAXROOMS];
+	/** The chance a room exists at a coordinate away from the roads, when generated lazily. */
+	private static final double ROOM_DENSITY	= 0.6;
+	/** The width and height, in rooms, of the regions which share an area type. */
+	private static final int REGION_SIZE		= 8;
+	/** The chance a region is Forest, as it is around the HOMELOCATION. */
+	private static final double FOREST_CHANCE	= 0.7;
+	/** The coordinate hash salt deciding whether a room exists. */
+	private static final int SALT_EXISTS		= 1;
+	/** The coordinate hash salt deciding a region's area type. */
+	private static final int SALT_TYPE			= 2;
+	/** The coordinate hash salt choosing a room's name. */
+	private static final int SALT_NAME			= 3;
+	/** The coordinate hash salt choosing a room's description. */
+	private static final int SALT_DESC			= 4;
+	/** The coordinate hash salt seeding a room's Items. */
+	private static final int SALT_ITEMS			= 5;
+
+	/** This is the actual "world"; chunks of Rooms keyed by their packed chunk coordinates. */
+	private static ConcurrentHashMap<Long, Room[]> chunks = new ConcurrentHashMap<Long, Room[]>();
+	/** The number of Rooms in the world; Rooms may be added from more than one thread. */
+	private static AtomicInteger roomCount = new AtomicInteger();
+	/** A boolean indicating chunks are generated the first time they're asked for. */
+	private static boolean lazyGeneration = false;
+	/** The packed coordinates of every chunk which has been lazily generated. */
+	private static Set<Long> generatedChunks = ConcurrentHashMap.newKeySet();
 
 	/** The World is the world is the world. This is the World. */
 	private static World world = null;
@@ -131,18 +175,200 @@ public class World {
 	 */
 	public static Room getRoom(int x, int y) {
 		
-		// Make sure with bounds checking
-		if (x < MAXROOMS && y < MAXROOMS && x >= 0 && y >= 0) {
+		// In the lazy mode, the chunk may not have been generated yet
+		if (lazyGeneration && !generatedChunks.contains(chunkKey(x, y))) {
+
+			generateChunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+		}
 
-			if (rooms[x][y] != null) {
+		Room[] chunk = chunks.get(chunkKey(x, y));
 
-				return rooms[x][y];
-			}
+		// No chunk, no rooms
+		if (chunk != null) {
+
+			return chunk[chunkIndex(x, y)];
 		}
 		
 		return null;
 	}
 
+	/**
+	 * A method to return a reference to the Room at (x, y) if it has already been built,
+	 * without generating its chunk.
+	 *
+	 * @param x The X coordinate of the Room.
+	 * @param y The Y coordinate of the Room.
+	 * @return Returns a reference to the Room, or null if there isn't one yet.
+	 */
+	private static Room peekRoom(int x, int y) {
+
+		Room[] chunk = chunks.get(chunkKey(x, y));
+
+		return chunk != null ? chunk[chunkIndex(x, y)] : null;
+	}
+
+	/**
+	 * A method to turn on lazy generation; from then on, each chunk of the World is
+	 * generated the first time a room in it is asked for. The Seed and the dynamic room
+	 * names and descriptions must already be loaded.
+	 */
+	public static void startLazyGeneration() {
+
+		lazyGeneration = true;
+
+		// Notify the game admin how the world will be built
+		System.out.println("Lazily building world from " + Config.getSeedFileName() + ".");
+	}
+
+	/**
+	 * A method to generate every room in a chunk which should exist and doesn't yet, then
+	 * give the new rooms their Items. Each is decided only by its coordinates and the seed.
+	 *
+	 * @param chunkX The X coordinate of the chunk.
+	 * @param chunkY The Y coordinate of the chunk.
+	 */
+	private static synchronized void generateChunk(int chunkX, int chunkY) {
+
+		long key		= chunkKey(chunkX << CHUNK_SHIFT, chunkY << CHUNK_SHIFT);
+		Room[] chunk	= chunks.get(key);
+		// The coordinates of each room we build
+		ArrayList<Coordinate> builtRooms = new ArrayList<Coordinate>();
+		int x = 0;
+		int y = 0;
+		// The generator for a new room's Items
+		Random rng = null;
+
+		// Somebody else got here first
+		if (generatedChunks.contains(key)) {
+
+			return;
+		}
+
+		for(int i = 0; i < CHUNK_SIZE * CHUNK_SIZE; i++) {
+
+			x = (chunkX << CHUNK_SHIFT) + (i & CHUNK_MASK);
+			y = (chunkY << CHUNK_SHIFT) + (i >> CHUNK_SHIFT);
+
+			// Rooms loaded from the zone file are left alone
+			if ((chunk == null || chunk[i] == null) && lazyRoomExists(x, y)) {
+
+				// Only make the chunk once there's something to put in it
+				if (chunk == null) {
+
+					chunk = new Room[CHUNK_SIZE * CHUNK_SIZE];
+				}
+
+				chunk[i] = buildLazyRoom(x, y);
+				roomCount.incrementAndGet();
+				builtRooms.add(new Coordinate(x, y));
+			}
+		}
+
+		// The rooms have to be in place before Items can be put in them
+		if (chunk != null) {
+
+			chunks.put(key, chunk);
+		}
+
+		generatedChunks.add(key);
+
+		// Each new room and the rooms around it are exits to one another
+		for(Coordinate oneRoom: builtRooms) {
+
+			linkNeighbours(peekRoom(oneRoom.getCoordX(), oneRoom.getCoordY()),
+						   oneRoom.getCoordX(), oneRoom.getCoordY());
+		}
+
+		// And if we're generous, the room gets an item; the same one every time
+		for(Coordinate oneRoom: builtRooms) {
+
+			rng = new Random(Seed.coordinateHash(oneRoom.getCoordX(), oneRoom.getCoordY(), SALT_ITEMS));
+
+			if (ToolKit.rand(rng, 0, 20) > 15) {
+
+				Item.dynamicallyBuildItems(1, oneRoom.getCoordX(), oneRoom.getCoordY(), rng);
+			}
+		}
+	}
+
+	/**
+	 * A method to decide whether a lazily generated room exists at (x, y). The row and column
+	 * through the HOMELOCATION are roads which always exist, so no part of the world can be
+	 * cut off from home by the roads alone.
+	 *
+	 * @param x The X coordinate of the room.
+	 * @param y The Y coordinate of the room.
+	 * @return Returns true if a room belongs at (x, y).
+	 */
+	private static boolean lazyRoomExists(int x, int y) {
+
+		if (x == HOMELOCATION || y == HOMELOCATION) {
+
+			return true;
+		}
+
+		return Seed.rand(x, y, SALT_EXISTS) < ROOM_DENSITY;
+	}
+
+	/**
+	 * A method to build the lazily generated room at (x, y).
+	 *
+	 * @param x The X coordinate of the room.
+	 * @param y The Y coordinate of the room.
+	 * @return Returns the new Room.
+	 */
+	private static Room buildLazyRoom(int x, int y) {
+
+		// Neighbouring rooms share their region's area type
+		double typeRoll	= Seed.rand(Math.floorDiv(x, REGION_SIZE), Math.floorDiv(y, REGION_SIZE), SALT_TYPE);
+		int rType		= 0;
+
+		// Mostly Forest, otherwise any of the other five types
+		if (typeRoll >= FOREST_CHANCE) {
+
+			rType = 1 + (int)((typeRoll - FOREST_CHANCE) / (1 - FOREST_CHANCE) * 5);
+		}
+
+		return (new Room(x, y, Room.getBuildName(rType, Seed.rand(x, y, SALT_NAME)),
+						 Room.getBuildDesc(rType, Seed.rand(x, y, SALT_DESC)), World.getWorld(), true));
+	}
+
+	/**
+	 * A method to get the number of Rooms in the World.
+	 *
+	 * @return Returns the number of Rooms which exist.
+	 */
+	public static int getRoomCount() {
+
+		return roomCount.get();
+	}
+
+	/**
+	 * A method to pack the coordinates of the chunk containing (x, y) into a single key.
+	 *
+	 * @param x The X coordinate of a Room.
+	 * @param y The Y coordinate of a Room.
+	 * @return Returns the chunk's X coordinate in the high 32 bits and its Y coordinate
+	 *			in the low 32 bits.
+	 */
+	public static long chunkKey(int x, int y) {
+
+		// The arithmetic shift rounds negative coordinates down, so -1 is in chunk -1
+		return ((long)(x >> CHUNK_SHIFT) << 32) | ((y >> CHUNK_SHIFT) & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * A method to find the position of (x, y) within its chunk.
+	 *
+	 * @param x The X coordinate of a Room.
+	 * @param y The Y coordinate of a Room.
+	 * @return Returns the index of the Room in its chunk's array.
+	 */
+	public static int chunkIndex(int x, int y) {
+
+		return ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+	}
+
 	/**
 	 * A method to get the name of the World.
 	 *
@@ -212,25 +438,74 @@ public class World {
 	 */
 	public static void addRoom(Room newRoom, int x, int y) {
 	
-		// If the bounds are checked
-		if (x >= 0 && x < MAXROOMS && y >= 0 && y < MAXROOMS) {
-	
-			// And the room doesn't exist
-			if (!checkRoomExists(x, y)) {
-	
-				// Then it does now!
-				rooms[x][y] = newRoom;
-				
-				// And if we're generous
-				if (ToolKit.rand(0, 20) > 15) {
+		// If there's a room to add and the room doesn't exist
+		if (newRoom != null && !checkRoomExists(x, y)) {
 
-					// The room get's a random item!
-					Item.dynamicallyBuildItems(1, x, y, false);
-				}
+			// Then it does now! Its chunk is made the first time it's needed
+			chunks.computeIfAbsent(chunkKey(x, y), key -> new Room[CHUNK_SIZE * CHUNK_SIZE])
+				  [chunkIndex(x, y)] = newRoom;
+			roomCount.incrementAndGet();
+
+			// It and the rooms around it are exits to one another
+			linkNeighbours(newRoom, x, y);
+			
+			// And if we're generous
+			if (ToolKit.rand(0, 20) > 15) {
+
+				// The room get's a random item!
+				Item.dynamicallyBuildItems(1, x, y, false);
+			}
+		}
+	}
+
+	/**
+	 * A method to link a newly placed Room with the rooms around it, so each knows the other
+	 * is an exit. Only rooms which already exist are looked at, so this never generates a
+	 * chunk; a neighbour built later links itself in the same way.
+	 *
+	 * @param room The new Room.
+	 * @param x The X coordinate of the new Room.
+	 * @param y The Y coordinate of the new Room.
+	 */
+	private static void linkNeighbours(Room room, int x, int y) {
+
+		// East, west, north and south of it, and the way back from each
+		int[][] neighbours	= { {x + 1, y, Room.EAST, Room.WEST}, {x - 1, y, Room.WEST, Room.EAST},
+								{x, y + 1, Room.NORTH, Room.SOUTH}, {x, y - 1, Room.SOUTH, Room.NORTH} };
+		Room neighbour		= null;
+
+		for(int[] link: neighbours) {
+
+			neighbour = peekRoom(link[0], link[1]);
+
+			if (neighbour != null) {
+
+				room.addExit(link[2]);
+				neighbour.addExit(link[3]);
 			}
 		}
 	}
 
+	/**
+	 * A method to make sure every room next to (x, y) which should exist has been built, so
+	 * the exits of the Room there are complete. Only the lazy generation mode leaves rooms
+	 * unbuilt.
+	 *
+	 * @param x The X coordinate of the Room.
+	 * @param y The Y coordinate of the Room.
+	 */
+	public static void generateNeighbours(int x, int y) {
+
+		if (lazyGeneration) {
+
+			// Asking for a room generates its chunk
+			getRoom(x + 1, y);
+			getRoom(x - 1, y);
+			getRoom(x, y + 1);
+			getRoom(x, y - 1);
+		}
+	}
+
 	/**
 	 * A method to test whether a room exists or not.
 	 *
@@ -240,18 +515,8 @@ public class World {
 	 */
     public static boolean checkRoomExists(int x, int y) {
 
-		// Bounds check
-        if (x < MAXROOMS && x >= 0 && y < MAXROOMS && y >= 0) {
-
-			// It does, we're good
-            if (rooms[x][y] != null) {
-            
-                return true;
-            }
-        }
-        
-        // It doesn't or bounds are bad
-        return false;
+		// There's no edge to the world, it's there or it isn't
+		return getRoom(x, y) != null;
     }
 
 	/** A method to load up the predefined, flat file, home zone. */
@@ -448,16 +713,9 @@ public class World {
 	 */
 	private Room buildRoom(int locationX, int locationY, int rType) {
 	
-		// Make sure to bounds check
-		if (locationX >= 0 && locationX < MAXROOMS && locationY >= 0 && locationY < MAXROOMS) {
-		
-			// Build the room and return it
-			return (new Room(locationX, locationY, Room.getBuildName(rType), 
-							 Room.getBuildDesc(rType), World.getWorld(), true));
-		}
-		
-		// No room, failed bounds check
-		return null;
+		// Build the room and return it
+		return (new Room(locationX, locationY, Room.getBuildName(rType), 
+						 Room.getBuildDesc(rType), World.getWorld(), true));
 	}
 	
 	/**
@@ -469,45 +727,25 @@ public class World {
 	 * @param roomY The Y coordinate of the Room.
 	 */
 	private void buildExitCheck(boolean[] roomExists, int roomX, int roomY) {
-		
-		if (World.checkRoomExists(roomX + 1, roomY)) {
-			
-			roomExists[EAST] = true;
-		}
-		
-		else {
-			
-			roomExists[EAST] = false;
-		}
-		
-		if (World.checkRoomExists(roomX - 1, roomY)) {
-			
-			roomExists[WEST] = true;
-		}
-		
-		else {
-			
-			roomExists[WEST] = false;
-		}
-		
-		if (World.checkRoomExists(roomX, roomY + 1)) {
-			
-			roomExists[NORTH] = true;
-		}
-		
-		else {
-			
-			roomExists[NORTH] = false;
-		}
-		
-		if (World.checkRoomExists(roomX, roomY - 1)) {
-			
-			roomExists[SOUTH] = true;
+
+		Room room = getRoom(roomX, roomY);
+
+		// A built room already knows its exits
+		if (room != null) {
+
+			roomExists[EAST]	= room.hasExit(Room.EAST);
+			roomExists[WEST]	= room.hasExit(Room.WEST);
+			roomExists[NORTH]	= room.hasExit(Room.NORTH);
+			roomExists[SOUTH]	= room.hasExit(Room.SOUTH);
 		}
-		
+
+		// Otherwise we look around it
 		else {
-			
-			roomExists[SOUTH] = false;
+
+			roomExists[EAST]	= World.checkRoomExists(roomX + 1, roomY);
+			roomExists[WEST]	= World.checkRoomExists(roomX - 1, roomY);
+			roomExists[NORTH]	= World.checkRoomExists(roomX, roomY + 1);
+			roomExists[SOUTH]	= World.checkRoomExists(roomX, roomY - 1);
 		}
 	}
 	
@@ -521,20 +759,16 @@ public class World {
 	 */
 	private void addNextRoom(int x, int y) {
 
-		// Ensure boundary checking
-		if (x >= 0 && x < MAXROOMS && y >= 0 && y < MAXROOMS) {
-
-			// And we really only want to build so far ahead
-			if (newRoomList.size() < 200) {
-				
-				newRoomList.add(new Coordinate(x, y));
-			}
+		// We really only want to build so far ahead
+		if (newRoomList.size() < 200) {
 			
-			// If we get too far ahead of ourselves, we stop for a bit
-			else if (newRoomList.size() > 199) {
-				
-				stopAddingRooms = true;
-			}
+			newRoomList.add(new Coordinate(x, y));
+		}
+		
+		// If we get too far ahead of ourselves, we stop for a bit
+		else if (newRoomList.size() > 199) {
+			
+			stopAddingRooms = true;
 		}
 	}
 	
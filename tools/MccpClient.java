@@ -0,0 +1,372 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ *<pre>
+ *	Purpose
+ *
+ *		The MccpClient class is a small command line client for checking the game's MCCP
+ *		compressed output by hand. It takes the game up on its offer of compression, inflates
+ *		everything sent after that, and shows it as text, along with how many bytes actually
+ *		crossed the network.
+ *
+ *	Structure / Process
+ *
+ *		It isn't part of the game, and is built and run on its own:
+ *
+ *			javac -d . MccpClient.java
+ *			java MccpClient localhost 5002 Bob password look score quit
+ *
+ *		After the host and port, each argument is sent as one line, once the game has been
+ *		quiet for a moment. The answer to IAC WILL COMPRESS2 is IAC DO COMPRESS2; once
+ *		IAC SB COMPRESS2 IAC SE arrives, every byte after it is run through an Inflater. Other
+ *		telnet commands are dropped from what's shown. Once the last line has been sent, the
+ *		client reads until the game hangs up or goes quiet, then prints the totals.
+ *</pre>
+ * @author Nicholas Warner
+ * @version 5.1, June 2015
+ * @see Mccp
+ */
+public class MccpClient {
+
+	/** The telnet Interpret As Command byte. */
+	private static final int IAC		= 255;
+	/** The telnet command offering to enable an option. */
+	private static final int WILL		= 251;
+	/** The telnet command asking for an option to be enabled. */
+	private static final int DO			= 253;
+	/** The telnet command beginning a subnegotiation. */
+	private static final int SB			= 250;
+	/** The telnet command ending a subnegotiation. */
+	private static final int SE			= 240;
+	/** The telnet option number of MCCP version 2. */
+	private static final int COMPRESS2	= 86;
+
+	/** A constant int for reading ordinary text. */
+	private static final int TELNET_DATA	= 0;
+	/** A constant int for having just read an IAC. */
+	private static final int TELNET_IAC		= 1;
+	/** A constant int for waiting on the option of a WILL, WONT, DO or DONT. */
+	private static final int TELNET_OPTION	= 2;
+	/** A constant int for reading a subnegotiation. */
+	private static final int TELNET_SUB		= 3;
+	/** A constant int for having just read an IAC within a subnegotiation. */
+	private static final int TELNET_SUB_IAC	= 4;
+
+	/** How long, in milliseconds, the game must be quiet before the next line is sent. */
+	private static final int QUIET_MILLIS	= 500;
+	/** How long, in milliseconds, to wait for the game once the last line is sent. */
+	private static final int LAST_MILLIS	= 2000;
+
+	/** The connection to the game. */
+	private Socket socket;
+	/** The bytes the game sends. */
+	private InputStream socketIn;
+	/** The bytes we send. */
+	private OutputStream socketOut;
+	/** The decompressor, or null while the game is sending plain text. */
+	private Inflater inflater;
+	/** A boolean indicating the game compressed its output at some point. */
+	private boolean compressed;
+	/** Where we are in any telnet command being read. */
+	private int telnetState;
+	/** The WILL, WONT, DO or DONT whose option is being waited on. */
+	private int telnetVerb;
+	/** The first byte of the subnegotiation being read, or -1 if none has been read yet. */
+	private int subOption;
+	/** The number of bytes read from the network. */
+	private long wireBytes;
+	/** The number of bytes of text and telnet commands, after inflating. */
+	private long plainBytes;
+
+	/**
+	 * A parameterized constructor which connects to the game.
+	 *
+	 * @param host The host the game runs on.
+	 * @param port The port the game listens on.
+	 * @throws IOException Thrown if the game can't be reached.
+	 */
+	public MccpClient(String host, int port) throws IOException {
+
+		socket		= new Socket(host, port);
+		socketIn	= socket.getInputStream();
+		socketOut	= socket.getOutputStream();
+		inflater	= null;
+		compressed	= false;
+		telnetState	= TELNET_DATA;
+		telnetVerb	= 0;
+		subOption	= -1;
+		wireBytes	= 0;
+		plainBytes	= 0;
+	}
+
+	/**
+	 * The main method; connect, send each line and print what comes back.
+	 *
+	 * @param args The host, the port, and the lines to send.
+	 */
+	public static void main(String[] args) {
+
+		MccpClient client = null;
+
+		if (args.length < 2) {
+
+			System.out.println("Usage: java MccpClient host port [line ...]");
+			return;
+		}
+
+		// Try to talk to the game
+		try {
+
+			client = new MccpClient(args[0], Integer.parseInt(args[1]));
+
+			for(int i = 2; i < args.length; i++) {
+
+				client.readFor(QUIET_MILLIS);
+				client.send(args[i]);
+			}
+
+			client.readFor(LAST_MILLIS);
+			client.socket.close();
+
+			System.out.println();
+			System.out.println("Compressed: " + (client.compressed ? "yes" : "no") +
+							   ", " + client.wireBytes + " bytes read, " + client.plainBytes +
+							   " bytes after inflating.");
+		}
+
+		// Catch any Exceptions
+		catch (IOException e) {
+
+			System.out.println("IOException in MccpClient: " + e.getMessage());
+		}
+
+		catch (DataFormatException e) {
+
+			System.out.println("The compressed stream is damaged: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * A method to send one line to the game.
+	 *
+	 * @param line The line, without its newline.
+	 * @throws IOException Thrown if the connection fails.
+	 */
+	private void send(String line) throws IOException {
+
+		socketOut.write((line + "\r\n").getBytes("ISO-8859-1"));
+		socketOut.flush();
+	}
+
+	/**
+	 * A method to read and show what the game sends until it's been quiet for the given time,
+	 * or hangs up.
+	 *
+	 * @param quietMillis How long, in milliseconds, the game must be quiet.
+	 * @throws IOException Thrown if the connection fails.
+	 * @throws DataFormatException Thrown if the compressed stream is damaged.
+	 */
+	private void readFor(int quietMillis) throws IOException, DataFormatException {
+
+		byte[] buffer	= new byte[4096];
+		int read		= 0;
+
+		socket.setSoTimeout(quietMillis);
+
+		while(true) {
+
+			// Try to read
+			try {
+
+				read = socketIn.read(buffer);
+			}
+
+			// Quiet long enough
+			catch (SocketTimeoutException e) {
+
+				return;
+			}
+
+			// Hung up
+			if (read < 0) {
+
+				return;
+			}
+
+			wireBytes += read;
+			receive(buffer, 0, read);
+		}
+	}
+
+	/**
+	 * A method to handle bytes as they arrive from the network, inflating them once the game
+	 * has started compressing.
+	 *
+	 * @param bytes The array holding the bytes.
+	 * @param offset The index of the first byte.
+	 * @param length The number of bytes.
+	 * @throws IOException Thrown if an answer can't be sent.
+	 * @throws DataFormatException Thrown if the compressed stream is damaged.
+	 */
+	private void receive(byte[] bytes, int offset, int length)
+		throws IOException, DataFormatException {
+
+		byte[] inflated	= new byte[8192];
+		int end			= offset + length;
+		int used		= 0;
+		int made		= 0;
+
+		while(length > 0) {
+
+			// Plain text, up to the start of compression if it starts here
+			if (inflater == null) {
+
+				used	= decode(bytes, offset, length);
+				offset	+= used;
+				length	-= used;
+				continue;
+			}
+
+			inflater.setInput(bytes, offset, length);
+			length = 0;
+
+			while((made = inflater.inflate(inflated)) > 0) {
+
+				decode(inflated, 0, made);
+			}
+
+			// The game ended the stream, so whatever follows is plain again
+			if (inflater.finished()) {
+
+				length		= inflater.getRemaining();
+				offset		= end - length;
+				inflater	= null;
+			}
+		}
+	}
+
+	/**
+	 * A method to show plain bytes and answer the telnet commands among them.
+	 *
+	 * @param bytes The array holding the bytes.
+	 * @param offset The index of the first byte.
+	 * @param length The number of bytes.
+	 * @return Returns how many bytes were used, which is fewer than given if compression
+	 *			starts partway through.
+	 * @throws IOException Thrown if an answer can't be sent.
+	 */
+	private int decode(byte[] bytes, int offset, int length) throws IOException {
+
+		ByteArrayOutputStream text	= new ByteArrayOutputStream(length);
+		int oneByte					= 0;
+		int used					= 0;
+
+		while(used < length) {
+
+			oneByte = bytes[offset + used++] & 0xFF;
+			plainBytes++;
+
+			switch(telnetState) {
+
+				case TELNET_DATA:
+
+					if (oneByte == IAC) {
+
+						telnetState = TELNET_IAC;
+					}
+
+					else {
+
+						text.write(oneByte);
+					}
+
+					break;
+
+				case TELNET_IAC:
+
+					if (oneByte == SB) {
+
+						telnetState	= TELNET_SUB;
+						subOption	= -1;
+					}
+
+					else if (oneByte >= WILL) {
+
+						telnetState	= TELNET_OPTION;
+						telnetVerb	= oneByte;
+					}
+
+					// An escaped 255, or a command with no option
+					else {
+
+						telnetState = TELNET_DATA;
+					}
+
+					break;
+
+				case TELNET_OPTION:
+
+					// Take the game up on compression
+					if (telnetVerb == WILL && oneByte == COMPRESS2) {
+
+						socketOut.write(new byte[] {(byte)IAC, (byte)DO, (byte)COMPRESS2});
+						socketOut.flush();
+					}
+
+					telnetState = TELNET_DATA;
+					break;
+
+				case TELNET_SUB:
+
+					if (oneByte == IAC) {
+
+						telnetState = TELNET_SUB_IAC;
+					}
+
+					else if (subOption == -1) {
+
+						subOption = oneByte;
+					}
+
+					break;
+
+				case TELNET_SUB_IAC:
+
+					telnetState = (oneByte == SE) ? TELNET_DATA : TELNET_SUB;
+
+					// Everything after IAC SB COMPRESS2 IAC SE is compressed
+					if (oneByte == SE && subOption == COMPRESS2) {
+
+						inflater	= new Inflater();
+						compressed	= true;
+						System.out.print(text.toString("ISO-8859-1"));
+
+						return used;
+					}
+
+					break;
+			}
+		}
+
+		System.out.print(text.toString("ISO-8859-1"));
+
+		return used;
+	}
+
+	/**
+	 * A method to put the class name.
+	 *
+	 * @return Returns a String indicating the class's name.
+	 */
+	public String toString() {
+
+		return "Class: MccpClient";
+	}
+}